@@ -0,0 +1,107 @@
+/*
+ * BaseDadosSintetica.java
+ *
+ * Created on 18 de Outubro de 2026, 19:10
+ */
+
+package cmeans;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Base de dados sintetica com grupos gaussianos, gerada a partir de uma
+ * semente para que os benchmarks sejam reprodutiveis. Os centros dos grupos
+ * sao sorteados no hipercubo [0, 10] e cada instancia e o centro de um grupo
+ * sorteado somado a um ruido normal de desvio padrao 1.
+ * @author Daniel Saraiva Leite
+ */
+public class BaseDadosSintetica extends BaseDados
+{
+    public static final double ladoHipercubo = 10;
+    public static final double desvioPadrao = 1;
+
+
+    /**
+     * Construtor
+     * @param nInstancias o numero de instancias
+     * @param nAtributos o numero de atributos
+     * @param nGrupos o numero de grupos gaussianos
+     * @param semente a semente do gerador
+     */
+    public BaseDadosSintetica(int nInstancias, int nAtributos, int nGrupos, long semente)
+    {
+        numeroInstancias = nInstancias;
+        numeroAtributos = nAtributos;
+        vetDados = gerarValores(nInstancias, nAtributos, nGrupos, semente);
+        normalizaBase();
+    }
+
+
+    /**
+     * Gera os valores das instancias, linha a linha
+     */
+    public static double[] gerarValores(int nInstancias, int nAtributos, int nGrupos,
+            long semente)
+    {
+        Random aleatorio = new Random(semente);
+        double[][] centros = new double[nGrupos][nAtributos];
+        for(int g = 0; g < nGrupos; g++)
+        {
+            for(int j = 0; j < nAtributos; j++)
+            {
+                centros[g][j] = ladoHipercubo * aleatorio.nextDouble();
+            }
+        }
+        double[] valores = new double[nInstancias * nAtributos];
+        for(int i = 0; i < nInstancias; i++)
+        {
+            double[] centro = centros[aleatorio.nextInt(nGrupos)];
+            for(int j = 0; j < nAtributos; j++)
+            {
+                // desloca para que os valores sejam positivos, como nas bases reais
+                valores[i * nAtributos + j] = ladoHipercubo
+                        + centro[j] + desvioPadrao * aleatorio.nextGaussian();
+            }
+        }
+        return valores;
+    }
+
+
+    /**
+     * Gera a mesma base no formato texto, com um comentario inicial
+     */
+    public static String gerarTexto(int nInstancias, int nAtributos, int nGrupos, long semente)
+    {
+        double[] valores = gerarValores(nInstancias, nAtributos, nGrupos, semente);
+        StringBuilder texto = new StringBuilder("# base sintetica\n");
+        for(int i = 0; i < nInstancias; i++)
+        {
+            for(int j = 0; j < nAtributos; j++)
+            {
+                texto.append(valores[i * nAtributos + j]).append(' ');
+            }
+            texto.append('\n');
+        }
+        return texto.toString();
+    }
+
+
+    /**
+     * Carrega uma das bases distribuidas em datasets/
+     * @param nome o nome da base, por exemplo "Iris"
+     */
+    public static BaseDados carregarDistribuida(String nome) throws Exception
+    {
+        LineNumberReader leitor = new LineNumberReader(
+                new FileReader(new File(System.getProperty("cmeans.datasets", "datasets"),
+                nome + ".data")));
+        try
+        {
+            return new BaseDados(leitor);
+        }
+        finally
+        {
+            leitor.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * BenchmarkAceleracao.java
+ *
+ * Created on 19 de Outubro de 2026, 17:05
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compara a execucao completa sem aceleracao (memoria 0) com a aceleracao
+ * de Anderson dos centroides, sobre bases sinteticas grandes e sempre a
+ * partir da mesma particao aleatoria. O numero de iteracoes e de passos
+ * desfeitos de cada caso e impresso ao fim do trial, ja que o tempo por
+ * execucao sozinho nao mostra se o ganho veio de menos iteracoes.
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BenchmarkAceleracao
+{
+    public static final long semente = 20071020;
+
+    @Param({"100000"})
+    public int nInstancias;
+
+    @Param({"8", "32"})
+    public int nAtributos;
+
+    @Param({"10", "20"})
+    public int nClusters;
+
+    @Param({"0", "3", "5"})
+    public int memoria;
+
+    protected BaseDados base;
+    protected AgrupamentoCMeans ultima;
+
+
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+    }
+
+
+    @Benchmark
+    public double[][] aplicarAlgoritmo()
+    {
+        AgrupamentoCMeans execucao = new AgrupamentoCMeans(base, nClusters);
+        execucao.definirInicializacao(AgrupamentoCMeans.INICIALIZACAO_PARTICAO, 0, semente);
+        execucao.definirAceleracao(memoria);
+        execucao.aplicarAlgoritmo();
+        ultima = execucao;
+        return execucao.recuperarMatrizCentroides();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void relatar()
+    {
+        System.out.println("\nIteracoes: " + ultima.recuperarNumeroIteracoes()
+                + ", passos desfeitos: " + ultima.recuperarRejeicoesAceleracao()
+                + ", J = " + ultima.calcularObjetivo());
+    }
+}
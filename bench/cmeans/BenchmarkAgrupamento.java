@@ -0,0 +1,116 @@
+/*
+ * BenchmarkAgrupamento.java
+ *
+ * Created on 18 de Outubro de 2026, 19:25
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks dos lacos criticos do AgrupamentoCMeans sobre bases sinteticas,
+ * parametrizados pelo numero de instancias, atributos e clusters e pelo m.
+ * Os parametros podem ser restringidos na linha de comando do JMH, por
+ * exemplo -p nInstancias=100000 -p nClusters=50.
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkAgrupamento
+{
+    public static final long semente = 20071020;
+
+    @Param({"10000", "100000"})
+    public int nInstancias;
+
+    @Param({"4", "32"})
+    public int nAtributos;
+
+    @Param({"3", "20"})
+    public int nClusters;
+
+    @Param({"2", "1.5"})
+    public double m;
+
+    protected BaseDados base;
+    protected AgrupamentoCMeans agrupamento;
+    protected double[][] matrizParticoes;
+    protected double[][] matrizParticoesNova;
+    protected double[][] centroides;
+
+
+    /**
+     * Gera a base e uma particao de partida com algumas iteracoes a partir
+     * de centroides sorteados, de modo que os kernels trabalhem sobre
+     * pertinencias realistas e a preparacao seja reprodutivel
+     */
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+        agrupamento = new AgrupamentoCMeans(base, nClusters,
+                AgrupamentoCMeans.epsilonPadrao, m);
+        agrupamento.matrizCentroides = agrupamento.sortearCentroides(new Random(semente));
+        matrizParticoes = agrupamento.calculaNovaMatrizParticoes();
+        matrizParticoesNova = new double[nInstancias][nClusters];
+        centroides = new double[nClusters][nAtributos];
+        for(int t = 0; t < 3; t++)
+        {
+            agrupamento.matrizCentroides = agrupamento.calcularCentroides(matrizParticoes, centroides);
+            agrupamento.calculaNovaMatrizParticoes(matrizParticoes);
+        }
+    }
+
+
+    @Benchmark
+    public double[][] calculaNovaMatrizParticoes()
+    {
+        return agrupamento.calculaNovaMatrizParticoes(matrizParticoesNova);
+    }
+
+
+    @Benchmark
+    public double[][] calcularCentroides()
+    {
+        return agrupamento.calcularCentroides(matrizParticoes, centroides);
+    }
+
+
+    /**
+     * Distancias de todas as instancias a um centroide, para isolar o custo
+     * da norma quadratica
+     */
+    @Benchmark
+    public double normaQuadratica()
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] centroide = centroides[0];
+        double dSoma = 0;
+        for(int k = 0; k < nInstancias; k++)
+        {
+            dSoma += agrupamento.normaQuadratica(dados, base.recuperarDeslocamento(k), centroide);
+        }
+        return dSoma;
+    }
+
+
+    /**
+     * Execucao completa, da particao aleatoria ate a convergencia
+     */
+    @Benchmark
+    @Warmup(iterations = 1, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public double[][] aplicarAlgoritmo()
+    {
+        AgrupamentoCMeans execucao = new AgrupamentoCMeans(base, nClusters,
+                AgrupamentoCMeans.epsilonPadrao, m);
+        execucao.aplicarAlgoritmo();
+        return execucao.recuperarMatrizCentroides();
+    }
+}
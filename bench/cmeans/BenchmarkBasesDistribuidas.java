@@ -0,0 +1,75 @@
+/*
+ * BenchmarkBasesDistribuidas.java
+ *
+ * Created on 18 de Outubro de 2026, 19:40
+ */
+
+package cmeans;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks do AgrupamentoCMeans sobre as bases distribuidas em datasets/.
+ * O diretorio das bases pode ser alterado com -Dcmeans.datasets=caminho.
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkBasesDistribuidas
+{
+    @Param({"Iris", "Glass"})
+    public String nomeBase;
+
+    @Param({"3", "6"})
+    public int nClusters;
+
+    @Param({"2", "1.5"})
+    public double m;
+
+    protected BaseDados base;
+    protected AgrupamentoCMeans agrupamento;
+    protected double[][] matrizParticoes;
+    protected double[][] matrizParticoesNova;
+    protected double[][] centroides;
+
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception
+    {
+        base = BaseDadosSintetica.carregarDistribuida(nomeBase);
+        agrupamento = new AgrupamentoCMeans(base, nClusters,
+                AgrupamentoCMeans.epsilonPadrao, m);
+        matrizParticoes = agrupamento.inicializaMatrizParticoes();
+        matrizParticoesNova = new double[base.recuperarNumeroInstancias()][nClusters];
+        centroides = new double[nClusters][base.recuperarNumeroAtributos()];
+        agrupamento.matrizCentroides = agrupamento.calcularCentroides(matrizParticoes, centroides);
+    }
+
+
+    @Benchmark
+    public double[][] calculaNovaMatrizParticoes()
+    {
+        return agrupamento.calculaNovaMatrizParticoes(matrizParticoesNova);
+    }
+
+
+    @Benchmark
+    public double[][] calcularCentroides()
+    {
+        return agrupamento.calcularCentroides(matrizParticoes, centroides);
+    }
+
+
+    @Benchmark
+    public double[][] aplicarAlgoritmo()
+    {
+        AgrupamentoCMeans execucao = new AgrupamentoCMeans(base, nClusters,
+                AgrupamentoCMeans.epsilonPadrao, m);
+        execucao.aplicarAlgoritmo();
+        return execucao.recuperarMatrizCentroides();
+    }
+}
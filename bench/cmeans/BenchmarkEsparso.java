@@ -0,0 +1,72 @@
+/*
+ * BenchmarkEsparso.java
+ *
+ * Created on 19 de Outubro de 2026, 10:05
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compara uma iteracao com a matriz de particoes densa (particoes e
+ * centroides) com uma iteracao do modo esparso, que guarda as k maiores
+ * pertinencias de cada instancia, para muitos clusters
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkEsparso
+{
+    public static final long semente = 20071020;
+
+    @Param({"20000"})
+    public int nInstancias;
+
+    @Param({"16"})
+    public int nAtributos;
+
+    @Param({"64", "256"})
+    public int nClusters;
+
+    @Param({"4"})
+    public int maximoPertinencias;
+
+    protected AgrupamentoCMeans agrupamento;
+    protected double[][] matrizParticoes;
+    protected double[][] centroides;
+
+
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        BaseDados base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+        agrupamento = new AgrupamentoCMeans(base, nClusters);
+        agrupamento.matrizCentroides = agrupamento.sortearCentroides(new Random(semente));
+        agrupamento.particaoEsparsa = new MatrizParticoesEsparsa(nInstancias, nClusters,
+                maximoPertinencias);
+        matrizParticoes = new double[nInstancias][nClusters];
+        centroides = new double[nClusters][nAtributos];
+    }
+
+
+    @Benchmark
+    public double[][] iteracaoDensa()
+    {
+        agrupamento.calculaNovaMatrizParticoes(matrizParticoes);
+        return agrupamento.calcularCentroides(matrizParticoes, centroides);
+    }
+
+
+    @Benchmark
+    public double[][] iteracaoEsparsa()
+    {
+        agrupamento.executarBlocos(BlocoInstancias.FASE_ESPARSA, null);
+        return agrupamento.reduzirCentroides(centroides);
+    }
+}
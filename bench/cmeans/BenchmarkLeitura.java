@@ -0,0 +1,114 @@
+/*
+ * BenchmarkLeitura.java
+ *
+ * Created on 18 de Outubro de 2026, 19:55
+ */
+
+package cmeans;
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks da leitura de bases no formato texto: leitura serial a partir
+ * da memoria, leitura serial e paralela a partir de um arquivo temporario e
+ * leitura do formato binario mapeado em memoria
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkLeitura
+{
+    @Param({"100000"})
+    public int nInstancias;
+
+    @Param({"4", "32"})
+    public int nAtributos;
+
+    @Param({"4"})
+    public int paralelismo;
+
+    protected String texto;
+    protected File arquivoTexto;
+    protected File arquivoBinario;
+
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception
+    {
+        texto = BaseDadosSintetica.gerarTexto(nInstancias, nAtributos, 8,
+                BenchmarkAgrupamento.semente);
+        arquivoTexto = File.createTempFile("cmeans", ".data");
+        Writer escritor = new BufferedWriter(new FileWriter(arquivoTexto));
+        escritor.write(texto);
+        escritor.close();
+        arquivoBinario = File.createTempFile("cmeans", BaseDadosBinaria.extensao);
+        BaseDadosBinaria.gravar(new BaseDados(new LineNumberReader(new StringReader(texto))),
+                arquivoBinario, BaseDadosBinaria.TIPO_DOUBLE);
+    }
+
+
+    @TearDown(Level.Trial)
+    public void encerrar()
+    {
+        arquivoTexto.delete();
+        arquivoBinario.delete();
+    }
+
+
+    @Benchmark
+    public BaseDados lerTextoMemoria() throws Exception
+    {
+        return new BaseDados(new LineNumberReader(new StringReader(texto)));
+    }
+
+
+    @Benchmark
+    public BaseDados lerTextoArquivo() throws Exception
+    {
+        LineNumberReader leitor = new LineNumberReader(new FileReader(arquivoTexto));
+        try
+        {
+            return new BaseDados(leitor);
+        }
+        finally
+        {
+            leitor.close();
+        }
+    }
+
+
+    @Benchmark
+    public BaseDados lerTextoArquivoParalelo() throws Exception
+    {
+        return new BaseDados(arquivoTexto, paralelismo);
+    }
+
+
+    @Benchmark
+    public BaseDados lerBinario() throws Exception
+    {
+        return new BaseDadosBinaria(arquivoBinario);
+    }
+
+
+    /**
+     * Bases distribuidas em datasets/
+     */
+    @Benchmark
+    public BaseDados lerIris() throws Exception
+    {
+        return BaseDadosSintetica.carregarDistribuida("Iris");
+    }
+
+
+    @Benchmark
+    public BaseDados lerGlass() throws Exception
+    {
+        return BaseDadosSintetica.carregarDistribuida("Glass");
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * BenchmarkMotorDistancias.java
+ *
+ * Created on 18 de Outubro de 2026, 23:05
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compara o calculo da matriz de particoes com as distancias calculadas
+ * uma instancia e um centroide por vez e com o MotorDistancias, em blocos,
+ * para muitos clusters. O motor so e usado com ao menos
+ * MotorDistancias.minimoAtributos atributos.
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkMotorDistancias
+{
+    public static final long semente = 20071020;
+
+    @Param({"20000"})
+    public int nInstancias;
+
+    @Param({"32", "256"})
+    public int nAtributos;
+
+    @Param({"16", "64", "256"})
+    public int nClusters;
+
+    @Param({"false", "true"})
+    public boolean blocos;
+
+    protected AgrupamentoCMeans agrupamento;
+    protected double[][] matrizParticoes;
+
+
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        BaseDados base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+        agrupamento = new AgrupamentoCMeans(base, nClusters);
+        agrupamento.definirMinimoClustersBlocos(blocos ? 1 : Integer.MAX_VALUE);
+        agrupamento.matrizCentroides = agrupamento.sortearCentroides(new Random(semente));
+        matrizParticoes = new double[nInstancias][nClusters];
+    }
+
+
+    @Benchmark
+    public double[][] calculaNovaMatrizParticoes()
+    {
+        return agrupamento.calculaNovaMatrizParticoes(matrizParticoes);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * BenchmarkPontuacao.java
+ *
+ * Created on 19 de Outubro de 2026, 12:15
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Mede a pontuacao de um lote de instancias novas por um ModeloCMeans, com
+ * pertinencias e rotulos ou so com rotulos, em serie e em paralelo
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkPontuacao
+{
+    public static final long semente = 20071020;
+
+    @Param({"100000"})
+    public int nInstancias;
+
+    @Param({"16"})
+    public int nAtributos;
+
+    @Param({"8"})
+    public int nClusters;
+
+    @Param({"1", "4"})
+    public int paralelismo;
+
+    protected BaseDados base;
+    protected ModeloCMeans modelo;
+    protected double[] pertinencias;
+    protected int[] rotulos;
+
+
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+        AgrupamentoCMeans agrupamento = new AgrupamentoCMeans(base, nClusters);
+        agrupamento.matrizCentroides = agrupamento.sortearCentroides(new Random(semente));
+        modelo = agrupamento.recuperarModelo();
+        modelo.definirParalelismo(paralelismo);
+        pertinencias = new double[nInstancias * nClusters];
+        rotulos = new int[nInstancias];
+    }
+
+
+    @Benchmark
+    public double[] pertinenciasERotulos() throws Exception
+    {
+        modelo.pontuar(base, pertinencias, rotulos);
+        return pertinencias;
+    }
+
+
+    @Benchmark
+    public int[] rotulos() throws Exception
+    {
+        modelo.pontuar(base, null, rotulos);
+        return rotulos;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * BenchmarkVetorial.java
+ *
+ * Created on 18 de Outubro de 2026, 21:40
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compara as operacoes escalares e SIMD do laco interno com muitos
+ * atributos: as distancias de todas as instancias a um centroide, a soma
+ * ponderada de todas as instancias e uma iteracao completa (particoes e
+ * centroides). O alvo bench ja inicia a JVM com
+ * --add-modules jdk.incubator.vector; sem o modulo, os casos simd=true
+ * usam a implementacao escalar e o nome mostrado no setup indica isso.
+ * @author Daniel Saraiva Leite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkVetorial
+{
+    public static final long semente = 20071020;
+
+    @Param({"20000"})
+    public int nInstancias;
+
+    @Param({"16", "128", "512"})
+    public int nAtributos;
+
+    @Param({"8"})
+    public int nClusters;
+
+    @Param({"false", "true"})
+    public boolean simd;
+
+    protected BaseDados base;
+    protected AgrupamentoCMeans agrupamento;
+    protected OperacoesVetoriais operacoes;
+    protected double[][] matrizParticoes;
+    protected double[][] centroides;
+    protected double[] somas;
+
+
+    @Setup(Level.Trial)
+    public void preparar()
+    {
+        base = new BaseDadosSintetica(nInstancias, nAtributos, nClusters, semente);
+        agrupamento = new AgrupamentoCMeans(base, nClusters);
+        agrupamento.definirSimd(simd);
+        operacoes = agrupamento.operacoes;
+        System.out.println("\nOperacoes: " + agrupamento.recuperarImplementacaoVetorial());
+        agrupamento.matrizCentroides = agrupamento.sortearCentroides(new Random(semente));
+        matrizParticoes = agrupamento.calculaNovaMatrizParticoes();
+        centroides = new double[nClusters][nAtributos];
+        somas = new double[nAtributos];
+    }
+
+
+    @Benchmark
+    public double normaQuadratica()
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] centroide = agrupamento.matrizCentroides[0];
+        double dSoma = 0;
+        for(int k = 0; k < nInstancias; k++)
+        {
+            dSoma += operacoes.normaQuadratica(dados, base.recuperarDeslocamento(k),
+                    centroide, nAtributos);
+        }
+        return dSoma;
+    }
+
+
+    @Benchmark
+    public double[] acumular()
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        Arrays.fill(somas, 0);
+        for(int k = 0; k < nInstancias; k++)
+        {
+            operacoes.acumular(somas, 0, dados, base.recuperarDeslocamento(k),
+                    nAtributos, matrizParticoes[k][0]);
+        }
+        return somas;
+    }
+
+
+    @Benchmark
+    public double[][] iteracao()
+    {
+        agrupamento.calculaNovaMatrizParticoes(matrizParticoes);
+        return agrupamento.calcularCentroides(matrizParticoes, centroides);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * AceleradorAnderson.java
+ *
+ * Created on 19 de Outubro de 2026, 16:10
+ */
+
+package cmeans;
+
+/**
+ * Aceleracao de Anderson da sequencia de centroides do C-Means. Cada
+ * iteracao do C-Means e uma funcao g dos centroides atuais x (as
+ * pertinencias de x seguidas dos centroides ponderados por elas), que
+ * converge linearmente para o ponto fixo x = g(x). Com as diferencas dos
+ * ultimos residuos f = g(x) - x e dos ultimos g(x) guardadas, o proximo
+ * ponto e g(x) - soma_j gama_j dG_j, em que gama minimiza
+ * ||f - soma_j gama_j dF_j|| (minimos quadrados de dimensao memoria,
+ * resolvidos pelas equacoes normais com uma pequena regularizacao).
+ * Enquanto o historico tiver menos de minimoDiferencas diferencas, o
+ * proximo ponto e simplesmente g(x): logo depois de um reinicio, a
+ * extrapolacao com uma unica diferenca costuma passar do ponto e ser
+ * desfeita. O acelerador nao garante que o objetivo diminua; quem o usa
+ * compara o objetivo do ponto extrapolado e, se ele piorar, volta para
+ * g(x) e reinicia o historico.
+ * @author Daniel Saraiva Leite
+ */
+class AceleradorAnderson
+{
+    public static final double regularizacao = 1e-10; // relativa a diagonal
+    public static final int minimoDiferencas = 2; // com menos, o passo e g(x)
+    protected int memoria;       // diferencas guardadas
+    protected int nClusters;
+    protected int nAtributos;
+    protected double[][] diferencasResiduos;   // dF_j, em fila circular
+    protected double[][] diferencasMapeados;   // dG_j, em fila circular
+    protected double[] residuoAnterior;   // f do ponto anterior
+    protected double[] mapeadoAnterior;   // g do ponto anterior
+    protected double[] residuo;           // f do ponto atual
+    protected double[][] sistema;         // dF^T dF + regularizacao
+    protected double[] termos;            // dF^T f, depois gama
+    protected int quantidade;   // diferencas validas, ate memoria
+    protected int proxima;      // posicao da proxima diferenca na fila
+    protected boolean temAnterior;
+
+
+    /**
+     * Construtor
+     * @param memoria o numero de diferencas guardadas, ao menos 1
+     * @param nClusters o numero de centroides
+     * @param nAtributos o numero de atributos de cada centroide
+     */
+    public AceleradorAnderson(int memoria, int nClusters, int nAtributos)
+    {
+        this.memoria = Math.max(1, memoria);
+        this.nClusters = nClusters;
+        this.nAtributos = nAtributos;
+        int iDimensao = nClusters * nAtributos;
+        diferencasResiduos = new double[this.memoria][iDimensao];
+        diferencasMapeados = new double[this.memoria][iDimensao];
+        residuoAnterior = new double[iDimensao];
+        mapeadoAnterior = new double[iDimensao];
+        residuo = new double[iDimensao];
+        sistema = new double[this.memoria][this.memoria];
+        termos = new double[this.memoria];
+    }
+
+
+    /**
+     * Descarta o historico; o proximo passo sera g(x)
+     */
+    public void reiniciar()
+    {
+        quantidade = 0;
+        proxima = 0;
+        temAnterior = false;
+    }
+
+
+    /**
+     * Calcula o proximo ponto a partir do ponto atual e da sua imagem
+     * @param atual os centroides x, cujas pertinencias geraram mapeado
+     * @param mapeado os centroides g(x), que nao sao alterados
+     * @param destino a matriz c x m atributos que recebe o proximo ponto;
+     * pode ser a propria atual
+     */
+    public void extrapolar(double[][] atual, double[][] mapeado, double[][] destino)
+    {
+        // residuo do ponto atual e diferencas em relacao ao anterior
+        double[] dDiferencaResiduo = diferencasResiduos[proxima];
+        double[] dDiferencaMapeado = diferencasMapeados[proxima];
+        for(int i = 0; i < nClusters; i++)
+        {
+            int iBase = i * nAtributos;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                double dMapeado = mapeado[i][j];
+                double dResiduo = dMapeado - atual[i][j];
+                if(temAnterior)
+                {
+                    dDiferencaResiduo[iBase + j] = dResiduo - residuoAnterior[iBase + j];
+                    dDiferencaMapeado[iBase + j] = dMapeado - mapeadoAnterior[iBase + j];
+                }
+                residuo[iBase + j] = dResiduo;
+                residuoAnterior[iBase + j] = dResiduo;
+                mapeadoAnterior[iBase + j] = dMapeado;
+            }
+        }
+        if(temAnterior)
+        {
+            proxima = (proxima + 1) % memoria;
+            quantidade = Math.min(quantidade + 1, memoria);
+        }
+        temAnterior = true;
+        if(quantidade < Math.min(minimoDiferencas, memoria) || !resolverCoeficientes())
+        {
+            copiar(mapeado, destino);
+            return;
+        }
+        // destino = g(x) - soma_j gama_j dG_j
+        for(int i = 0; i < nClusters; i++)
+        {
+            int iBase = i * nAtributos;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                double dValor = mapeado[i][j];
+                for(int h = 0; h < quantidade; h++)
+                {
+                    dValor -= termos[h] * diferencasMapeados[h][iBase + j];
+                }
+                destino[i][j] = dValor;
+            }
+        }
+    }
+
+
+    /**
+     * Resolve as equacoes normais (dF^T dF + lambda I) gama = dF^T f por
+     * Cholesky, deixando gama em termos. A ordem das diferencas na fila nao
+     * importa para a solucao.
+     * @return falso se o sistema nao puder ser resolvido (diferencas nulas
+     * ou nao finitas), caso em que o historico e reiniciado
+     */
+    protected boolean resolverCoeficientes()
+    {
+        int q = quantidade;
+        double dTraco = 0;
+        for(int a = 0; a < q; a++)
+        {
+            double[] dA = diferencasResiduos[a];
+            for(int b = 0; b <= a; b++)
+            {
+                double[] dB = diferencasResiduos[b];
+                double dSoma = 0;
+                for(int t = 0; t < residuo.length; t++)
+                {
+                    dSoma += dA[t] * dB[t];
+                }
+                sistema[a][b] = dSoma;
+            }
+            double dSoma = 0;
+            for(int t = 0; t < residuo.length; t++)
+            {
+                dSoma += dA[t] * residuo[t];
+            }
+            termos[a] = dSoma;
+            dTraco += sistema[a][a];
+        }
+        if(!(dTraco > 0) || Double.isInfinite(dTraco))
+        {
+            reiniciar();
+            return false;
+        }
+        double dLambda = regularizacao * dTraco / q;
+        // fatoracao de Cholesky no triangulo inferior
+        for(int a = 0; a < q; a++)
+        {
+            sistema[a][a] += dLambda;
+            for(int b = 0; b <= a; b++)
+            {
+                double dSoma = sistema[a][b];
+                for(int h = 0; h < b; h++)
+                {
+                    dSoma -= sistema[a][h] * sistema[b][h];
+                }
+                if(a == b)
+                {
+                    if(!(dSoma > 0))
+                    {
+                        reiniciar();
+                        return false;
+                    }
+                    sistema[a][a] = Math.sqrt(dSoma);
+                }
+                else
+                {
+                    sistema[a][b] = dSoma / sistema[b][b];
+                }
+            }
+        }
+        // substituicoes para frente e para tras
+        for(int a = 0; a < q; a++)
+        {
+            double dSoma = termos[a];
+            for(int h = 0; h < a; h++)
+            {
+                dSoma -= sistema[a][h] * termos[h];
+            }
+            termos[a] = dSoma / sistema[a][a];
+        }
+        for(int a = q - 1; a >= 0; a--)
+        {
+            double dSoma = termos[a];
+            for(int h = a + 1; h < q; h++)
+            {
+                dSoma -= sistema[h][a] * termos[h];
+            }
+            termos[a] = dSoma / sistema[a][a];
+        }
+        return true;
+    }
+
+
+    /**
+     * Copia uma matriz c x m atributos para outra
+     */
+    protected void copiar(double[][] origem, double[][] destino)
+    {
+        for(int i = 0; i < nClusters; i++)
+        {
+            System.arraycopy(origem[i], 0, destino[i], 0, nAtributos);
+        }
+    }
+}
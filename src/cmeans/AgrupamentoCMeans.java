@@ -1,405 +1,2109 @@
-/*
- * AgrupamentoCMeans.java
- *
- * Created on 20 de Outubro de 2007, 23:42
- */
-
-package cmeans;
-
-/**
- * Esta classe implementa o algoritmo C-Means
- * @author Daniel Saraiva Leite, Yin I Hsien
- */
-public class AgrupamentoCMeans 
-{
-    public static final double epsilonPadrao = 0.001; // criterio de parada
-    protected BaseDados base;
-    protected int nClusters;
-    protected double[][] matrizParticao;    // dim. n exemplos x c clusters
-    protected double[][] matrizCentroides;  // dim. c clusters x m atributos
-    protected double epsilon;    
-    public static final double mPadrao = 2;
-    protected double m; // influência do grau de pertinência no algoritimo
-    
-    
-    /** Construtor
-     * @param base a Base de Dados
-     * @param nClusters o numero de clusters
-     */
-    public AgrupamentoCMeans(BaseDados base, int nClusters) 
-    {
-        this.base = base;
-        this.nClusters = nClusters;
-        this.epsilon = epsilonPadrao;
-        this.m = mPadrao;
-    }
-    
-    /**
-     * Construtor que especifica qual o epsilon e m a serem utilizados
-     * @param base a Base de Dados
-     * @param nClusters o numero de clusters
-     * @param epsilon o criterio de parada (o erro)
-     * @param m a influencia do grau de pertinencia. Se a influencia tiver um valor 
-     * menor do que 1, o algoritimo assumira valor 2.
-     */
-    public AgrupamentoCMeans(BaseDados base, int nClusters, double epsilon, double m )
-    {
-    	this.base = base;
-    	this.nClusters = nClusters;
-    	this.epsilon = epsilon;
-    	if (m < 1)
-    	{
-    		this.m = mPadrao;
-    	}
-    	else
-    	{
-    		this.m = m;
-    	}
-    }
-    
-    
-    /**
-     * Aplica o algoritmo de clustering C-Means
-     */
-    public void aplicarAlgoritmo() 
-    {
-        // define a particao inicial aleatoria
-        matrizParticao = inicializaMatrizParticoes();
-        boolean bConvergiu = false;
-        int iIteracao = 0;
-        do
-        {
-            iIteracao++;
-            // calcula os novos centroides
-            matrizCentroides = calcularCentroides(matrizParticao);
-            // calcula a nova matriz de particoes
-            double[][] matrizParticoesNova = calculaNovaMatrizParticoes();
-            // verifica se convergiu
-            bConvergiu = convergiu(matrizParticao, matrizParticoesNova, iIteracao);
-            // atualiza matriz de particoes
-            matrizParticao = matrizParticoesNova;
-        }
-        while(!bConvergiu);
-    }
-    
-    
-    /**
-     * Aplica o algoritmo de clustering C-Means
-     * @param epsilon O numero que define critério de parada
-     */
-    public void aplicarAlgoritmo(double epsilon) 
-    {
-        this.epsilon = epsilon;
-        this.aplicarAlgoritmo();
-    }
-    
-    
-    /**
-     * Retorna a matriz de centroides resultante
-     */
-    public double[][] recuperarMatrizCentroides() 
-    {
-        return matrizCentroides;
-    }
-    
-    
-    /**
-     * Retorna a matriz de particoes resultante
-     */
-    public double[][] recuperarMatrizParticoes() 
-    {
-        return matrizParticao;
-    }
-    
-    
-    /**
-     * Retorna uma string que mostra os centros de clusters obtidos
-     */
-    public String recuperarResultado() 
-    {
-        if(matrizCentroides == null) {
-            return "Algoritmo nao aplicado ainda";
-        } else {
-            StringBuffer buffer = new StringBuffer();
-            for(int i = 0; i < matrizCentroides.length; i++) {
-                for(int j = 0; j < matrizCentroides[i].length; j++) {
-                    buffer.append(matrizCentroides[i][j] + "\t");
-                }
-                buffer.append("\n");
-            }
-            return buffer.toString();
-        }
-    }
-    
-    
-    /**
-     * Retorna uma string que mostra o resultado aplicação do algoritmo
-     */
-    public String toString()
-    {
-        return recuperarResultado();   
-    }
-    
-    
-    /**
-     * Calcula a norm quadratrica entre dois vetores 
-     * Formula:
-     * || vetor1 - vetor2 || ^ 2
-     */
-    protected double normaQuadratica(double[] vetor1, double[] vetor2) 
-    throws ArithmeticException
-    {
-        if(vetor1.length != vetor2.length)
-        {
-            throw new ArithmeticException("Dimensoes incompativeis no cálculo "
-                    + "da norma quadratica entre dois vetores");
-        }
-        double dSoma = 0;
-        for(int i = 0; i < vetor1.length; i++)
-        {
-            dSoma += Math.pow(vetor1[i] - vetor2[i], 2);
-        }
-        return dSoma;
-    }
-    
-    
-    /**
-     * Calcula o centroide de um cluster denotado por indiceCluster
-     * @param matrizParticoes a Matriz de particoes usada na ponderacao
-     * @param indiceCluster o indice do cluster, de 0 ... nClusters - 1
-     */
-    protected double[] centroide(double [][] matrizParticoes, int indiceCluster)
-    {
-        double dSomaDenominador = 0;
-        double[] vetorCentroide = new double[base.recuperarNumeroAtributos()];
-        // Inicializa o vetor
-        for(int j = 0; j < vetorCentroide.length; j++)
-        {
-            vetorCentroide[j] = 0;
-        }
-        // determina o numerador
-        for(int i = 0; i < base.recuperarNumeroInstancias(); i++)
-        {
-            double dPertinencia = Math.pow(matrizParticoes[i][indiceCluster], m);
-            dSomaDenominador += dPertinencia;
-            for(int j = 0; j < vetorCentroide.length; j++)
-            {
-                vetorCentroide[j] += base.recuperarInstancia(i)[j] * Math.pow(dPertinencia, m);
-            }
-        }        
-        // divide pelo denominador
-        for(int j = 0; j < vetorCentroide.length; j++)
-        {
-            vetorCentroide[j] /= dSomaDenominador;
-        }       
-        return vetorCentroide;
-    }
-    
-    
-    /**
-     * Calcula o centroide de todos os clusters
-     * @param matrizParticoes a Matriz de particoes usada na ponderacao
-     */
-    protected double[][] calcularCentroides(double [][] matrizParticoes)
-    {
-        double[][] centroides = new double[nClusters][];
-        for(int i = 0; i < nClusters; i++)
-        {
-            centroides[i] = centroide(matrizParticoes, i);
-        }
-        return centroides;
-    }
-    
-    
-    /**
-     * Indica se houve convergencia do algoritmo
-     * @param matrizParticoesAnterior particoes(t)
-     * @param matrizParticoesAtual particoes(t+1)
-     * @returns True se convergiu. False caso contrario.
-     */
-    protected boolean convergiu(double [][] matrizParticoesAnterior, 
-            double [][] matrizParticoesAtual, int nIteracao)
-    {
-        double dMaximaDiferenca = 0;
-        // busca a maxima diferenca entre pertinencias nas duas matrizes
-        for(int i = 0; i < matrizParticoesAnterior.length; i++)
-        {
-            for(int j = 0; j < matrizParticoesAnterior[i].length; j++)
-            {
-                dMaximaDiferenca += Math.abs(matrizParticoesAnterior[i][j] 
-                        - matrizParticoesAtual[i][j] );
-            }
-        }        
-        return (dMaximaDiferenca <= epsilon) ? true : false;
-    }
-    
-    
-    /**
-     * Inicializa aleatoriamente a matriz de particoes, observando
-     * as regras de soma linha e soma coluna p. 28 slide
-     */
-    public double[][] inicializaMatrizParticoes()
-    {
-    	// Um vetor indicando se a coluna ja foi instanciado ou nao
-     	boolean [] bNaoZero = new boolean[nClusters];    	
-    	for (int j = 0; j < nClusters; j++)
-    	{
-    		bNaoZero[j] = false;
-    	}
-    	
-        double dGrauAleatorio = 0;
-        double dDiferenca = 0;
-        double[][] dMatrizAleatoria = new double [base.numeroInstancias][nClusters];
-        double dSomaLinha = 0;
-        int dIndiceAleatoria = 0;
-        
-        for (int k = 0; k < base.numeroInstancias; k++)
-        {
-        	dSomaLinha = 0;
-        	// inicia aleatoriamente os valores para as colunas
-        	for (int i = 0; i < nClusters; i++)
-        	{
-        		// gera um valor aleatorio para a coluna
-        		dMatrizAleatoria[k][i] = ((double) ((int) ((Math.random() % 1) * 10000))) / 10000;
-        		
-        		// se o valor gerado nao eh 0, entao indica que a coluna ja possui
-        		// valores maiores do que 0
-        		if (dMatrizAleatoria[k][i] != 0)
-        		{
-        			bNaoZero[i] = true;
-        		}
-        		
-        		// calcula a soma da linha
-        		dSomaLinha += dMatrizAleatoria[k][i];
-        	}
-        	
-        	while (dSomaLinha > 1)
-        	{
-        		// calcula quando falta para que a soma fique zero
-        		dDiferenca = dSomaLinha - 1;
-        		
-        		// escolhe uma coluna qualquer
-        		dIndiceAleatoria = (int) ((Math.random() * 10) % nClusters);
-        		
-        		// retira um valor aleatorio entre 0 e valor que a coluna tem de modo
-        		// a nunca zerar a coluna
-        		dGrauAleatorio = ((double) ((int) ((Math.random() % 
-        				dMatrizAleatoria[k][dIndiceAleatoria]) * 10000))) / 10000;
-        		
-        		// se o valor a ser retirado eh maior do que a diferenca entre a soma
-        		// atual e 1, entao retira a diferenca ao inves do valor aleatorio
-        		if (dDiferenca < dGrauAleatorio)
-        		{
-        			dMatrizAleatoria[k][dIndiceAleatoria] -= dDiferenca;
-        			dSomaLinha -= dDiferenca;
-        		}
-        		else
-        		{
-        			dMatrizAleatoria[k][dIndiceAleatoria] -= dGrauAleatorio;
-        			dSomaLinha -= dGrauAleatorio;
-        		}
-        	}
-        	
-        	while (dSomaLinha < 1)
-        	{
-        		// calcula quando falta para que a soma fique zero
-        		dDiferenca = 1 - dSomaLinha ;
-        		
-        		// escolhe uma coluna qualquer
-        		dIndiceAleatoria = (int) (Math.random() % nClusters);
-        		
-        		dGrauAleatorio =  1 - dMatrizAleatoria[k][dIndiceAleatoria];
-        		
-        		if (dGrauAleatorio >= dDiferenca) {
-        			dMatrizAleatoria[k][dIndiceAleatoria] += dDiferenca;
-        			dSomaLinha += dDiferenca;
-        		}
-        		else        			
-        		{
-        			dMatrizAleatoria[k][dIndiceAleatoria] += dGrauAleatorio;
-        			dSomaLinha += dGrauAleatorio;
-        		}
-        	}
-        }
-        
-        return dMatrizAleatoria;
-    }
-    
-    
-    /**
-     * Calcula a nova matriz de particoes
-     */
-    public double[][] calculaNovaMatrizParticoes()
-    {
-    	boolean [] I = null; // os dados que se coincidem com alguns dos centroides
-    	double[][] dMatrizCalculada = new double[base.numeroInstancias][nClusters];
-    	int iQtInstanciasI = 0;
-    	double dResultSomatorio = 0;
-    	double dNumerador = 0;
-    	double dResultParcial = 0;
-    	
-    	for (int k = 0; k < base.numeroInstancias; k++) {
-    		I = null;
-    		iQtInstanciasI = 0;
-    		for (int i = 0; i < nClusters; i++)
-    		{
-    			// calcula numerador
-    			dNumerador = normaQuadratica(base.recuperarInstancia(k), matrizCentroides[i]);
-    			
-    			// se o dado sobrepoe com o centroide
-    			if (dNumerador == 0)
-    			{
-    				if (I == null) // primeira vez que ocorre a sobreposicao do dado com algum centroide
-    				{
-    					I = new boolean[nClusters];
-    					
-    					for (int h = 0; h < nClusters; h++)
-    					{    						
-    						I[h] = false;
-    					}
-    				}
-    				
-    				// atualiza quais foram os dados que sobreposeram com os centroides
-    				I[i] = true;
-    				iQtInstanciasI++;
-    			}
-    			
-    			// caso ainda nao tivesse ocorrido nenhuma sobreposicao do dado com centroide
-    			if (I == null)
-    			{
-    				// calcula somatorio
-    				for (int j = 0; j < nClusters; j++)
-    				{
-    					// divide pelo denominador
-    					dResultParcial = dNumerador / 
-    						normaQuadratica(base.recuperarInstancia(k), matrizCentroides[j]);
-    					dResultSomatorio += Math.pow(dResultParcial, (1 / (m - 1))); 
-    				}
-    			}
-    			
-    			dMatrizCalculada[k][i] = Math.pow(dResultSomatorio, -1);
-    		}
-    		
-    		// se ocorreu sobreposicao do dado com algum centroide
-    		if (I != null)
-    		{
-    			for (int n = 0; n < nClusters; n++)
-    			{
-    				if (!I[n])
-    				{
-    					// zera o grau de pertinencia do dado nos outros clusters
-    					dMatrizCalculada[k][n] = 0;
-    				}
-    				else
-    				{
-    					// atribui o grau de pertinencia de forma igualitaria entre os
-    					// clusteres que o dado sobreposse
-    					dMatrizCalculada[k][n] = 1 / iQtInstanciasI;
-    				} 
-    			}
-    		}
-        }
-    	
-        return dMatrizCalculada;
-    }
-}
+/*
+ * AgrupamentoCMeans.java
+ *
+ * Created on 20 de Outubro de 2007, 23:42
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Esta classe implementa o algoritmo C-Means
+ * @author Daniel Saraiva Leite, Yin I Hsien
+ */
+public class AgrupamentoCMeans 
+{
+    public static final double epsilonPadrao = 0.001; // criterio de parada
+    protected BaseDados base;
+    protected int nClusters;
+    protected double[][] matrizParticao;    // dim. n exemplos x c clusters
+    protected double[][] matrizCentroides;  // dim. c clusters x m atributos
+    protected double epsilon;    
+    public static final double mPadrao = 2;
+    protected double m; // influência do grau de pertinência no algoritimo
+    protected NucleoPertinencias nucleo; // calculos que dependem de m
+    protected OperacoesVetoriais operacoes = OperacoesVetoriais.padrao; // escalar ou SIMD
+    public static final int minimoClustersBlocosPadrao = 16;
+    protected int minimoClustersBlocos = minimoClustersBlocosPadrao; // para usar o motor
+    protected MotorDistancias motorDistancias; // nulo quando a fase nao usa o motor
+    protected MatrizParticoesEsparsa particaoEsparsa; // resultado do modo esparso
+    protected double limiarEsparso; // menor pertinencia guardada no modo esparso
+    protected int numeroIteracoes; // iteracoes da ultima execucao
+    protected boolean calculoObjetivo; // calcula J_m a cada matriz de particoes
+    protected double objetivo = Double.NaN; // J_m da ultima matriz de particoes
+    protected OuvinteIteracoes ouvinte; // nulo: nenhuma medicao
+    protected MetricasIteracao metricas; // reaproveitada a cada iteracao
+    protected EventoFaseCMeans eventoFase; // reaproveitado nas fases; nulo sem gravacao do JFR
+    protected double deltaConvergencia; // diferenca da ultima verificacao de parada
+    protected int memoriaAceleracao; // diferencas da aceleracao de Anderson, 0: sem aceleracao
+    protected int rejeicoesAceleracao; // passos acelerados desfeitos na ultima execucao
+    public static final int SITUACAO_CONVERGIU = 0;
+    public static final int SITUACAO_LIMITE_ITERACOES = 1;
+    public static final int SITUACAO_PRAZO_ESGOTADO = 2;
+    public static final int SITUACAO_CANCELADO = 3;
+    protected static final String[] nomesSituacoes = {"convergiu", "limite de iteracoes",
+        "prazo esgotado", "cancelado"};
+    protected int maximoIteracoes; // 0: sem limite
+    protected long prazoNanos;     // 0: sem prazo
+    protected long inicioExecucao; // System.nanoTime() do inicio da execucao atual
+    protected long ultimaVerificacao; // System.nanoTime() da ultima verificacao, 0 antes da primeira
+    protected volatile boolean cancelamentoPedido;
+    protected int situacao = SITUACAO_CONVERGIU; // como terminou a ultima execucao
+    public static final int INICIALIZACAO_PARTICAO = 0; // particao aleatoria
+    public static final int INICIALIZACAO_SORTEIO = 1;  // c instancias sorteadas
+    public static final int INICIALIZACAO_KMEANSPP = 2; // sorteio ponderado por D^2
+    protected int inicializacao = INICIALIZACAO_PARTICAO;
+    protected int tamanhoAmostraInicializacao; // 0 usa a base inteira no k-means++
+    protected long sementeInicializacao = System.nanoTime();
+    public static final int instanciasPorSementeParticao = 4096; // linhas por gerador
+    public static final long minimoCelulasParticaoParalela = 1 << 16; // n x c
+    protected int paralelismo = 1; // numero de threads usadas em cada iteracao
+    protected ForkJoinPool pool; // nulo quando a execucao e serial
+    protected final List<Thread> threadsPool = new ArrayList<Thread>(); // para medir a alocacao
+    protected BlocoInstancias[] blocos; // intervalos de instancias de cada tarefa
+    protected BlocoInstancias.Grupo grupoBlocos; // tarefa raiz reaproveitada no pool
+    protected double[] somaDenominadoresReducao; // buffers da reducao dos blocos
+    protected double[] somaNumeradoresReducao;
+    public static final int maximoPassosPadrao = 1000; // limite do modo mini-lotes
+    public static final int passosEstaveisMiniLotes = 3; // passos abaixo de epsilon para parar
+    
+    
+    /** Construtor
+     * @param base a Base de Dados
+     * @param nClusters o numero de clusters
+     */
+    public AgrupamentoCMeans(BaseDados base, int nClusters) 
+    {
+        this.base = base;
+        this.nClusters = nClusters;
+        this.epsilon = epsilonPadrao;
+        this.m = mPadrao;
+    }
+    
+    /**
+     * Construtor que especifica qual o epsilon e m a serem utilizados
+     * @param base a Base de Dados
+     * @param nClusters o numero de clusters
+     * @param epsilon o criterio de parada (o erro)
+     * @param m a influencia do grau de pertinencia. Se a influencia tiver um valor 
+     * menor do que 1, o algoritimo assumira valor 2.
+     */
+    public AgrupamentoCMeans(BaseDados base, int nClusters, double epsilon, double m )
+    {
+    	this.base = base;
+    	this.nClusters = nClusters;
+    	this.epsilon = epsilon;
+    	if (m < 1)
+    	{
+    		this.m = mPadrao;
+    	}
+    	else
+    	{
+    		this.m = m;
+    	}
+    }
+    
+    
+    /**
+     * Aplica o algoritmo de clustering C-Means. As duas matrizes de particoes
+     * e a matriz de centroides sao alocadas uma unica vez por execucao e as
+     * matrizes de particoes sao trocadas a cada iteracao, de modo que as
+     * iteracoes nao alocam memoria.
+     */
+    public void aplicarAlgoritmo() 
+    {
+        iniciarExecucao();
+        if(inicializacao != INICIALIZACAO_PARTICAO)
+        {
+            partirDosCentroides(centroidesSorteados(new Random(sementeInicializacao)));
+            return;
+        }
+        // define a particao inicial aleatoria
+        particaoEsparsa = null;
+        matrizParticao = inicializaMatrizParticoes();
+        matrizCentroides = new double[nClusters][base.recuperarNumeroAtributos()];
+        iterarParticoes();
+    }
+    
+    
+    /**
+     * Aplica o algoritmo de clustering C-Means a partir de centroides
+     * iniciais dados em vez de uma particao aleatoria. A particao inicial e
+     * a das pertinencias das instancias a esses centroides.
+     * @param centroidesIniciais a matriz c x m atributos dos centroides
+     * iniciais, que nao e alterada
+     */
+    public void aplicarAlgoritmoCentroides(double[][] centroidesIniciais) 
+    {
+        iniciarExecucao();
+        partirDosCentroides(centroidesIniciais);
+    }
+    
+    
+    /**
+     * Calcula a particao inicial a partir dos centroides dados e itera, sem
+     * reiniciar o relogio do prazo
+     * @param centroidesIniciais os centroides iniciais, que nao sao alterados
+     */
+    protected void partirDosCentroides(double[][] centroidesIniciais) 
+    {
+        particaoEsparsa = null;
+        matrizCentroides = new double[nClusters][];
+        for(int i = 0; i < nClusters; i++)
+        {
+            matrizCentroides[i] = centroidesIniciais[i].clone();
+        }
+        matrizParticao = calculaNovaMatrizParticoes();
+        iterarParticoes();
+    }
+    
+    
+    /**
+     * Aplica o algoritmo de clustering C-Means a partir dos centroides de um
+     * modelo, por exemplo o de um agrupamento anterior sobre uma versao
+     * antiga da base. Os centroides sao levados da normalizacao do modelo
+     * para a da base. O m usado e o deste agrupamento.
+     * @param modelo o modelo, com o mesmo numero de clusters e de atributos
+     */
+    public void aplicarAlgoritmoModelo(ModeloCMeans modelo) 
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        if(modelo.recuperarNumeroClusters() != nClusters 
+                || modelo.recuperarNumeroAtributos() != nAtributos)
+        {
+            throw new IllegalArgumentException("O modelo tem " 
+                    + modelo.recuperarNumeroClusters() + " clusters e " 
+                    + modelo.recuperarNumeroAtributos() + " atributos; esperados " 
+                    + nClusters + " e " + nAtributos);
+        }
+        double[] maximosModelo = modelo.recuperarMaximos();
+        double[] maximosBase = base.recuperarMaximos();
+        double[][] centroides = new double[nClusters][nAtributos];
+        for(int i = 0; i < nClusters; i++)
+        {
+            for(int j = 0; j < nAtributos; j++)
+            {
+                centroides[i][j] = modelo.recuperarMatrizCentroides()[i][j] 
+                        * maximosModelo[j] / maximosBase[j];
+            }
+        }
+        aplicarAlgoritmoCentroides(centroides);
+    }
+    
+    
+    /**
+     * Acrescenta instancias a base e refina o resultado atual, iterando a
+     * partir dos centroides atuais ate a convergencia. Quando as novas
+     * instancias mudam pouco a distribuicao, bastam poucas iteracoes. Se
+     * algum maximo da normalizacao mudar, os centroides sao renormalizados
+     * junto com a base.
+     * @param valores os valores originais das novas instancias, instancia a
+     * instancia (dim. quantidade x m atributos)
+     * @param quantidade o numero de instancias novas
+     * @return o numero de iteracoes do refinamento
+     */
+    public int acrescentarInstancias(double[] valores, int quantidade) 
+    {
+        if(matrizCentroides == null)
+        {
+            throw new IllegalStateException("Nao ha resultado a refinar; aplique o "
+                    + "algoritmo antes de acrescentar instancias");
+        }
+        int nAtributos = base.recuperarNumeroAtributos();
+        double[] maximosAnteriores = base.recuperarMaximos().clone();
+        if(base.acrescentarInstancias(valores, quantidade))
+        {
+            double[] maximos = base.recuperarMaximos();
+            for(int i = 0; i < nClusters; i++)
+            {
+                for(int j = 0; j < nAtributos; j++)
+                {
+                    matrizCentroides[i][j] *= maximosAnteriores[j] / maximos[j];
+                }
+            }
+        }
+        aplicarAlgoritmoCentroides(matrizCentroides);
+        return numeroIteracoes;
+    }
+    
+    
+    /**
+     * Itera a partir da matriz de particoes atual ate a convergencia,
+     * reaproveitando a matriz de centroides e uma segunda matriz de
+     * particoes alocada uma unica vez
+     */
+    protected void iterarParticoes()
+    {
+        double[][] matrizParticoesNova = new double[base.numeroInstancias][nClusters];
+        AceleradorAnderson acelerador = null;
+        double[][] centroidesMapeados = null; // centroides sem a aceleracao
+        if(memoriaAceleracao > 0)
+        {
+            acelerador = new AceleradorAnderson(memoriaAceleracao, nClusters, 
+                    base.recuperarNumeroAtributos());
+            centroidesMapeados = new double[nClusters][base.recuperarNumeroAtributos()];
+        }
+        double dObjetivoAnterior = Double.NaN; // J_m das pertinencias dos centroides atuais
+        rejeicoesAceleracao = 0;
+        boolean bConvergiu = false;
+        boolean bParar = false;
+        int iIteracao = 0;
+        do
+        {
+            iIteracao++;
+            iniciarMedicao();
+            // calcula os novos centroides; com a aceleracao, a particao atual
+            // precisa ser a dos centroides atuais, o que vale a partir da
+            // segunda iteracao
+            iniciarFase(EventoFaseCMeans.CENTROIDES, iIteracao);
+            long lInicio = (ouvinte != null) ? System.nanoTime() : 0;
+            boolean bAcelerado = acelerador != null && !Double.isNaN(dObjetivoAnterior);
+            if(bAcelerado)
+            {
+                calcularCentroides(matrizParticao, centroidesMapeados);
+                acelerador.extrapolar(matrizCentroides, centroidesMapeados, matrizCentroides);
+            }
+            else
+            {
+                calcularCentroides(matrizParticao, matrizCentroides);
+            }
+            long lMeio = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            // calcula a nova matriz de particoes
+            iniciarFase(EventoFaseCMeans.PARTICOES, iIteracao);
+            calculaNovaMatrizParticoes(matrizParticoesNova);
+            if(bAcelerado && objetivo > dObjetivoAnterior)
+            {
+                // o passo acelerado piorou J_m: fica com os centroides sem a
+                // aceleracao, que nunca pioram, e recomeca o historico
+                acelerador.copiar(centroidesMapeados, matrizCentroides);
+                acelerador.reiniciar();
+                calculaNovaMatrizParticoes(matrizParticoesNova);
+                rejeicoesAceleracao++;
+            }
+            dObjetivoAnterior = objetivo;
+            long lFim = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            // verifica se convergiu
+            bConvergiu = convergiu(matrizParticao, matrizParticoesNova, iIteracao);
+            bParar = bConvergiu || atingiuLimite(iIteracao);
+            if(ouvinte != null)
+            {
+                notificarIteracao(iIteracao, objetivo, lMeio - lInicio, lFim - lMeio);
+            }
+            // troca as matrizes de particoes
+            double[][] matrizParticoesAnterior = matrizParticao;
+            matrizParticao = matrizParticoesNova;
+            matrizParticoesNova = matrizParticoesAnterior;
+        }
+        while(!bParar);
+        numeroIteracoes = iIteracao;
+    }
+    
+    
+    /**
+     * Aplica o algoritmo de clustering C-Means
+     * @param epsilon O numero que define critério de parada
+     */
+    public void aplicarAlgoritmo(double epsilon) 
+    {
+        this.epsilon = epsilon;
+        this.aplicarAlgoritmo();
+    }
+    
+    
+    /**
+     * Aplica o algoritmo C-Means sem manter a matriz de particoes. Os
+     * proximos centroides dependem apenas dos atuais, entao as pertinencias
+     * de cada instancia sao calculadas e imediatamente acumuladas nas somas
+     * dos centroides; a memoria de trabalho e O(c x m atributos) por bloco
+     * de instancias. A convergencia e medida pela soma das diferencas entre
+     * os centroides de duas iteracoes. Os centroides iniciais vem de uma
+     * particao aleatoria gerada linha a linha, sem ser guardada, ou da
+     * estrategia escolhida em definirInicializacao.
+     * @param materializarParticao se verdadeiro, a matriz de particoes final
+     * e calculada e fica disponivel em recuperarMatrizParticoes
+     * @param receptor se nao nulo, recebe as pertinencias finais de cada
+     * instancia, na ordem da base
+     * @return o numero de iteracoes executadas
+     */
+    public int aplicarAlgoritmoSemParticao(boolean materializarParticao,
+            ReceptorPertinencias receptor) throws Exception
+    {
+        iniciarExecucao();
+        matrizParticao = null;
+        particaoEsparsa = null;
+        matrizCentroides = (inicializacao == INICIALIZACAO_PARTICAO) 
+                ? centroidesParticaoAleatoria() 
+                : centroidesSorteados(new Random(sementeInicializacao));
+        double[][] centroidesNovos = new double[nClusters][base.recuperarNumeroAtributos()];
+        boolean bConvergiu = false;
+        boolean bParar = false;
+        int iIteracao = 0;
+        do
+        {
+            iIteracao++;
+            iniciarMedicao();
+            // calcula as pertinencias e os novos centroides em uma passada
+            iniciarFase(EventoFaseCMeans.PARTICOES, iIteracao);
+            long lInicio = (ouvinte != null) ? System.nanoTime() : 0;
+            executarBlocos(BlocoInstancias.FASE_SEM_PARTICAO, null);
+            reduzirCentroides(centroidesNovos);
+            long lFim = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            // verifica se convergiu
+            bConvergiu = convergiuCentroides(matrizCentroides, centroidesNovos);
+            bParar = bConvergiu || atingiuLimite(iIteracao);
+            if(ouvinte != null)
+            {
+                notificarIteracao(iIteracao, Double.NaN, 0, lFim - lInicio);
+            }
+            // troca as matrizes de centroides
+            double[][] centroidesAnteriores = matrizCentroides;
+            matrizCentroides = centroidesNovos;
+            centroidesNovos = centroidesAnteriores;
+        }
+        while(!bParar);
+        numeroIteracoes = iIteracao;
+        if(materializarParticao)
+        {
+            matrizParticao = calculaNovaMatrizParticoes();
+        }
+        if(receptor != null)
+        {
+            emitirParticoes(receptor);
+        }
+        return iIteracao;
+    }
+    
+    
+    /**
+     * Calcula as pertinencias de cada instancia em relacao aos centroides
+     * atuais e as entrega ao receptor, na ordem da base
+     * @param receptor o receptor das linhas da matriz de particoes
+     */
+    public void emitirParticoes(ReceptorPertinencias receptor) throws Exception
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] distancias = new double[nClusters];
+        double[] pertinencias = new double[nClusters];
+        for(int k = 0; k < base.numeroInstancias; k++)
+        {
+            calcularPertinencias(dados, base.recuperarDeslocamento(k), matrizCentroides,
+                    distancias, pertinencias);
+            receptor.receber(k, pertinencias);
+        }
+    }
+    
+    
+    /**
+     * Aplica o algoritmo C-Means guardando apenas as maiores pertinencias de
+     * cada instancia, para muitos clusters. A cada iteracao, as pertinencias
+     * de cada instancia sao calculadas em relacao aos centroides atuais,
+     * reduzidas as k maiores (e as maiores ou iguais ao limiar),
+     * renormalizadas e acumuladas nos proximos centroides, que recebem so as
+     * k entradas de cada instancia. A memoria da particao e o trabalho de
+     * acumulacao passam de O(n x c) para O(n x k); as distancias continuam
+     * sendo calculadas para os c centroides. A convergencia e medida pelos
+     * centroides, como em aplicarAlgoritmoSemParticao, e os centroides
+     * iniciais sao instancias sorteadas (com o k-means++, se escolhido em
+     * definirInicializacao). O resultado fica em
+     * recuperarParticaoEsparsa; recuperarMatrizParticoes retorna nulo.
+     * @param maximoPertinencias o numero k de pertinencias por instancia
+     * @param limiar a menor pertinencia guardada, antes da renormalizacao;
+     * 0 guarda sempre as k maiores
+     * @param semente a semente do sorteio dos centroides iniciais
+     * @return o numero de iteracoes executadas
+     */
+    public int aplicarAlgoritmoEsparso(int maximoPertinencias, double limiar, long semente)
+    {
+        iniciarExecucao();
+        matrizParticao = null;
+        particaoEsparsa = new MatrizParticoesEsparsa(base.numeroInstancias, nClusters, 
+                maximoPertinencias);
+        limiarEsparso = limiar;
+        matrizCentroides = centroidesSorteados(new Random(semente));
+        double[][] centroidesNovos = new double[nClusters][base.recuperarNumeroAtributos()];
+        boolean bConvergiu = false;
+        boolean bParar = false;
+        int iIteracao = 0;
+        do
+        {
+            iIteracao++;
+            iniciarMedicao();
+            // calcula as pertinencias esparsas e os novos centroides em uma passada
+            iniciarFase(EventoFaseCMeans.PARTICOES, iIteracao);
+            long lInicio = (ouvinte != null) ? System.nanoTime() : 0;
+            executarBlocos(BlocoInstancias.FASE_ESPARSA, null);
+            reduzirCentroides(centroidesNovos);
+            long lFim = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            // verifica se convergiu
+            bConvergiu = convergiuCentroides(matrizCentroides, centroidesNovos);
+            bParar = bConvergiu || atingiuLimite(iIteracao);
+            if(ouvinte != null)
+            {
+                notificarIteracao(iIteracao, Double.NaN, 0, lFim - lInicio);
+            }
+            // troca as matrizes de centroides
+            double[][] centroidesAnteriores = matrizCentroides;
+            matrizCentroides = centroidesNovos;
+            centroidesNovos = centroidesAnteriores;
+        }
+        while(!bParar);
+        numeroIteracoes = iIteracao;
+        return iIteracao;
+    }
+    
+    
+    /**
+     * Calcula os centroides de uma particao aleatoria, gerando cada linha da
+     * particao e acumulando-a sem guardar a matriz. As linhas sao as mesmas
+     * de inicializaMatrizParticoes com a mesma semente.
+     */
+    protected double[][] centroidesParticaoAleatoria()
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        double[] somaNumeradores = new double[nClusters * nAtributos];
+        double[] somaDenominadores = new double[nClusters];
+        acumularSomasParticaoAleatoria(somaNumeradores, somaDenominadores);
+        return dividirSomas(somaNumeradores, somaDenominadores, 
+                new double[nClusters][nAtributos]);
+    }
+    
+    
+    /**
+     * Acumula os numeradores e denominadores dos centroides de uma particao
+     * aleatoria, sem dividi-los, como em centroidesParticaoAleatoria
+     * @param somaNumeradores vetor c x m atributos, zerado, que recebe as
+     * somas ponderadas
+     * @param somaDenominadores vetor, zerado, com a soma dos pesos de cada
+     * cluster
+     */
+    protected void acumularSomasParticaoAleatoria(double[] somaNumeradores, 
+            double[] somaDenominadores)
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] linha = new double[nClusters];
+        long[] sementes = sementesParticao(sementeInicializacao);
+        SplittableRandom aleatorio = null;
+        for(int k = 0; k < base.numeroInstancias; k++)
+        {
+            if(k % instanciasPorSementeParticao == 0)
+            {
+                aleatorio = new SplittableRandom(sementes[k / instanciasPorSementeParticao]);
+            }
+            inicializaLinhaParticoes(linha, aleatorio);
+            acumularInstancia(dados, base.recuperarDeslocamento(k), linha, 
+                    base.recuperarPeso(k), somaNumeradores, somaDenominadores);
+        }
+    }
+    
+    
+    /**
+     * Aplica o algoritmo C-Means em mini-lotes, para bases grandes demais
+     * para iteracoes completas. A cada passo, um lote de instancias e
+     * sorteado, apenas as pertinencias do lote sao calculadas e cada
+     * centroide se move na direcao do centroide ponderado do lote, com uma
+     * taxa de aprendizado igual a fracao do peso do cluster que veio do lote.
+     * O algoritmo para quando a soma das diferencas entre os centroides de
+     * dois passos fica abaixo de epsilon em passosEstaveisMiniLotes passos
+     * seguidos, ou apos maximoPassos passos. A matriz de particoes nao e
+     * calculada; se necessario, use calculaNovaMatrizParticoes. O ouvinte
+     * recebe uma metrica por passo, com o tempo do lote na fase das
+     * particoes e J_m nao calculado (NaN).
+     * @param tamanhoLote o numero de instancias sorteadas a cada passo
+     * @param maximoPassos o numero maximo de passos
+     * @param taxaMinima a menor taxa de aprendizado, entre 0 e 1. Com 0, cada
+     * centroide converge para a media de todas as contribuicoes recebidas;
+     * valores maiores mantem os centroides sensiveis aos lotes recentes.
+     * @param semente a semente do sorteio dos centroides iniciais e dos lotes
+     * @return o numero de passos executados
+     */
+    public int aplicarAlgoritmoMiniLotes(int tamanhoLote, int maximoPassos, 
+            double taxaMinima, long semente)
+    {
+        iniciarExecucao();
+        Random aleatorio = new Random(semente);
+        int nAtributos = base.recuperarNumeroAtributos();
+        double[] dados = base.recuperarDadosContiguos();
+        double[][] centroides = centroidesSorteados(aleatorio);
+        double[][] centroidesAnteriores = new double[nClusters][nAtributos];
+        double[] somaNumeradores = new double[nClusters * nAtributos];
+        double[] somaDenominadores = new double[nClusters];
+        double[] pesosAcumulados = new double[nClusters];
+        double[] distancias = new double[nClusters];
+        double[] pertinencias = new double[nClusters];
+        int iPasso = 0;
+        int iPassosEstaveis = 0;
+        while(iPasso < maximoPassos && iPassosEstaveis < passosEstaveisMiniLotes 
+                && !atingiuLimite(iPasso))
+        {
+            iPasso++;
+            iniciarMedicao();
+            // acumula as contribuicoes do lote
+            iniciarFase(EventoFaseCMeans.PARTICOES, iPasso);
+            long lInicio = (ouvinte != null) ? System.nanoTime() : 0;
+            Arrays.fill(somaNumeradores, 0);
+            Arrays.fill(somaDenominadores, 0);
+            for(int b = 0; b < tamanhoLote; b++)
+            {
+                int k = aleatorio.nextInt(base.numeroInstancias);
+                int iDeslocamento = base.recuperarDeslocamento(k);
+                calcularPertinencias(dados, iDeslocamento, centroides, distancias, pertinencias);
+                acumularInstancia(dados, iDeslocamento, pertinencias, base.recuperarPeso(k),
+                        somaNumeradores, somaDenominadores);
+            }
+            long lMeio = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            // move os centroides na direcao dos centroides do lote
+            iniciarFase(EventoFaseCMeans.CENTROIDES, iPasso);
+            for(int i = 0; i < nClusters; i++)
+            {
+                System.arraycopy(centroides[i], 0, centroidesAnteriores[i], 0, nAtributos);
+                if(somaDenominadores[i] == 0)
+                {
+                    continue;
+                }
+                pesosAcumulados[i] += somaDenominadores[i];
+                double dTaxa = Math.max(somaDenominadores[i] / pesosAcumulados[i], taxaMinima);
+                for(int j = 0; j < nAtributos; j++)
+                {
+                    double dCentroideLote = somaNumeradores[i * nAtributos + j] / somaDenominadores[i];
+                    centroides[i][j] += dTaxa * (dCentroideLote - centroides[i][j]);
+                }
+            }
+            long lFim = (ouvinte != null) ? System.nanoTime() : 0;
+            concluirFase();
+            iPassosEstaveis = convergiuCentroides(centroidesAnteriores, centroides) 
+                    ? iPassosEstaveis + 1 : 0;
+            if(ouvinte != null)
+            {
+                notificarIteracao(iPasso, Double.NaN, lFim - lMeio, lMeio - lInicio);
+            }
+        }
+        if(situacao == SITUACAO_CONVERGIU && iPassosEstaveis < passosEstaveisMiniLotes)
+        {
+            situacao = SITUACAO_LIMITE_ITERACOES;
+        }
+        matrizCentroides = centroides;
+        matrizParticao = null;
+        particaoEsparsa = null;
+        numeroIteracoes = iPasso;
+        return iPasso;
+    }
+    
+    
+    /**
+     * Aplica o algoritmo C-Means em mini-lotes, com no maximo 
+     * maximoPassosPadrao passos e taxa de aprendizado minima nula
+     * @param tamanhoLote o numero de instancias sorteadas a cada passo
+     * @param semente a semente do sorteio dos centroides iniciais e dos lotes
+     * @return o numero de passos executados
+     */
+    public int aplicarAlgoritmoMiniLotes(int tamanhoLote, long semente)
+    {
+        return aplicarAlgoritmoMiniLotes(tamanhoLote, maximoPassosPadrao, 0, semente);
+    }
+
+
+    /**
+     * Define o numero de threads usadas no calculo das particoes e dos
+     * centroides. As instancias sao divididas em blocos processados em um
+     * ForkJoinPool e as somas parciais de cada bloco sao reduzidas no final.
+     * @param paralelismo o numero de threads. Se menor ou igual a 1, a
+     * execucao e serial.
+     */
+    public void definirParalelismo(int paralelismo)
+    {
+        if(pool != null)
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        this.paralelismo = (paralelismo < 1) ? 1 : paralelismo;
+        if(this.paralelismo > 1)
+        {
+            // registra as threads do pool, cuja alocacao entra nas metricas
+            pool = new ForkJoinPool(this.paralelismo, new ForkJoinPool.ForkJoinWorkerThreadFactory()
+            {
+                public ForkJoinWorkerThread newThread(ForkJoinPool poolThreads)
+                {
+                    ForkJoinWorkerThread thread = 
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(poolThreads);
+                    synchronized(threadsPool)
+                    {
+                        threadsPool.add(thread);
+                    }
+                    return thread;
+                }
+            }, null, false);
+        }
+        blocos = null;
+    }
+
+
+    /**
+     * Retorna o numero de threads usadas em cada iteracao
+     */
+    public int recuperarParalelismo()
+    {
+        return paralelismo;
+    }
+
+
+    /**
+     * Define como o algoritmo e iniciado: por uma particao aleatoria
+     * (INICIALIZACAO_PARTICAO, o padrao, ver inicializaMatrizParticoes), por
+     * c instancias sorteadas
+     * (INICIALIZACAO_SORTEIO) ou pelo sorteio ponderado do k-means++
+     * (INICIALIZACAO_KMEANSPP), em que cada novo centroide e uma instancia
+     * sorteada com probabilidade proporcional ao quadrado da sua distancia ao
+     * centroide mais proximo ja escolhido. Nos modos esparso e mini-lotes,
+     * que sempre partem de centroides, o k-means++ substitui o sorteio
+     * simples e a semente continua sendo a passada ao metodo.
+     * @param estrategia uma das constantes INICIALIZACAO_*
+     * @param tamanhoAmostra no k-means++, o numero de instancias sorteadas
+     * sobre as quais os centroides sao escolhidos, para bases grandes; 0 usa
+     * a base inteira
+     * @param semente a semente dos sorteios
+     */
+    public void definirInicializacao(int estrategia, int tamanhoAmostra, long semente)
+    {
+        if(estrategia < INICIALIZACAO_PARTICAO || estrategia > INICIALIZACAO_KMEANSPP)
+        {
+            throw new IllegalArgumentException("Estrategia de inicializacao invalida: " 
+                    + estrategia);
+        }
+        this.inicializacao = estrategia;
+        this.tamanhoAmostraInicializacao = Math.max(0, tamanhoAmostra);
+        this.sementeInicializacao = semente;
+    }
+
+
+    /**
+     * Retorna a estrategia de inicializacao (uma das constantes INICIALIZACAO_*)
+     */
+    public int recuperarInicializacao()
+    {
+        return inicializacao;
+    }
+
+
+    /**
+     * Define se as distancias e as somas dos centroides usam a Vector API.
+     * A Vector API so e usada se a JVM tiver sido iniciada com
+     * --add-modules jdk.incubator.vector; caso contrario, a implementacao
+     * escalar e mantida.
+     * @param simd verdadeiro para usar a Vector API quando disponivel
+     */
+    public void definirSimd(boolean simd)
+    {
+        operacoes = simd ? OperacoesVetoriais.padrao : OperacoesVetoriais.escalar;
+        if(simd && operacoes == OperacoesVetoriais.escalar)
+        {
+            OperacoesVetoriais simdDisponivel = OperacoesVetoriais.carregarSimd();
+            operacoes = (simdDisponivel != null) ? simdDisponivel : OperacoesVetoriais.escalar;
+        }
+    }
+
+
+    /**
+     * Define a partir de quantos clusters as distancias sao calculadas pelo
+     * MotorDistancias, em blocos de instancias x centroides, em vez de uma
+     * instancia e um centroide por vez. Com poucos clusters, o calculo
+     * direto e mais rapido e mais preciso.
+     * @param minimoClusters o numero minimo de clusters; Integer.MAX_VALUE
+     * desliga o motor
+     */
+    public void definirMinimoClustersBlocos(int minimoClusters)
+    {
+        this.minimoClustersBlocos = minimoClusters;
+    }
+
+
+    /**
+     * Retorna o nome da implementacao das operacoes do laco interno,
+     * "escalar" ou "simd" seguido da largura dos vetores
+     */
+    public String recuperarImplementacaoVetorial()
+    {
+        return operacoes.recuperarNome();
+    }
+
+    
+    /**
+     * Retorna o numero de iteracoes (ou de passos, no modo mini-lotes) da
+     * ultima execucao
+     */
+    public int recuperarNumeroIteracoes()
+    {
+        return numeroIteracoes;
+    }
+    
+    
+    /**
+     * Define se a funcao objetivo J_m e calculada junto com cada nova matriz
+     * de particoes, a partir das distancias ja calculadas. Com m diferente
+     * de 2, o calculo acrescenta um u^m por pertinencia.
+     * @param calcular verdadeiro para calcular J_m a cada iteracao
+     */
+    public void definirCalculoObjetivo(boolean calcular)
+    {
+        this.calculoObjetivo = calcular;
+    }
+    
+    
+    /**
+     * Liga a aceleracao de Anderson dos centroides nas execucoes que guardam
+     * a matriz de particoes (aplicarAlgoritmo, aplicarAlgoritmoCentroides e
+     * as que partem deles). A cada iteracao, os centroides calculados sao
+     * combinados com os das ultimas iteracoes (AceleradorAnderson), o que
+     * costuma reduzir bastante o numero de iteracoes quando a convergencia e
+     * lenta. J_m passa a ser calculado a cada iteracao: se o passo acelerado
+     * aumentar J_m, ele e desfeito e a iteracao usa os centroides sem
+     * aceleracao, ao custo de mais um calculo da matriz de particoes. Assim
+     * J_m continua diminuindo a cada iteracao.
+     * @param memoria o numero de iteracoes anteriores combinadas (3 a 5
+     * costuma bastar); 0 desliga a aceleracao
+     */
+    public void definirAceleracao(int memoria)
+    {
+        this.memoriaAceleracao = Math.max(0, memoria);
+    }
+    
+    
+    /**
+     * Retorna quantos passos acelerados foram desfeitos na ultima execucao
+     * por aumentarem J_m
+     */
+    public int recuperarRejeicoesAceleracao()
+    {
+        return rejeicoesAceleracao;
+    }
+    
+    
+    /**
+     * Limita as proximas execucoes. Os limites sao verificados entre as
+     * iteracoes: ao atingir um deles, a execucao termina com o resultado da
+     * ultima iteracao completa (centroides e a particao calculada a partir
+     * deles), que e tambem o de menor J_m ate ali, ja que J_m nunca aumenta
+     * de uma iteracao para a outra. O prazo e verificado contra a duracao da
+     * ultima iteracao: a execucao para quando mais uma iteracao
+     * provavelmente nao caberia no tempo restante.
+     * @param maximoIteracoes o numero maximo de iteracoes (passos, no modo
+     * mini-lotes); 0 para nao limitar
+     * @param prazoMilissegundos o tempo maximo da execucao, incluindo a
+     * inicializacao; 0 para nao limitar
+     */
+    public void definirLimites(int maximoIteracoes, long prazoMilissegundos)
+    {
+        this.maximoIteracoes = Math.max(0, maximoIteracoes);
+        this.prazoNanos = Math.max(0, prazoMilissegundos) * 1000000L;
+    }
+    
+    
+    /**
+     * Pede, de outra thread, que a execucao em andamento termine ao fim da
+     * iteracao atual, com a situacao SITUACAO_CANCELADO. Interromper a thread
+     * da execucao tem o mesmo efeito. Um pedido feito sem execucao em
+     * andamento vale para a proxima.
+     */
+    public void cancelar()
+    {
+        cancelamentoPedido = true;
+    }
+    
+    
+    /**
+     * Retorna como terminou a ultima execucao: SITUACAO_CONVERGIU ou o
+     * limite atingido (SITUACAO_LIMITE_ITERACOES, SITUACAO_PRAZO_ESGOTADO ou
+     * SITUACAO_CANCELADO)
+     */
+    public int recuperarSituacao()
+    {
+        return situacao;
+    }
+    
+    
+    /**
+     * Retorna o nome da situacao da ultima execucao, para relatorios
+     */
+    public String recuperarNomeSituacao()
+    {
+        return nomesSituacoes[situacao];
+    }
+    
+    
+    /**
+     * Marca o inicio de uma execucao, para o prazo e a situacao, e cria o
+     * evento do JFR se ele estiver ligado
+     */
+    protected void iniciarExecucao()
+    {
+        inicioExecucao = System.nanoTime();
+        ultimaVerificacao = 0;
+        situacao = SITUACAO_CONVERGIU;
+        eventoFase = EventoFaseCMeans.criar();
+    }
+    
+    
+    /**
+     * Inicia o evento do JFR de uma fase, se houver gravacao
+     * @param fase EventoFaseCMeans.CENTROIDES ou EventoFaseCMeans.PARTICOES
+     * @param iteracao o numero da iteracao
+     */
+    protected void iniciarFase(String fase, int iteracao)
+    {
+        if(eventoFase != null)
+        {
+            eventoFase.iniciar(fase, iteracao, nClusters, base.numeroInstancias);
+        }
+    }
+    
+    
+    /**
+     * Encerra e grava o evento do JFR da fase atual, se houver gravacao
+     */
+    protected void concluirFase()
+    {
+        if(eventoFase != null)
+        {
+            eventoFase.concluir();
+        }
+    }
+    
+    
+    /**
+     * Verifica, ao fim de uma iteracao que nao convergiu, se algum limite foi
+     * atingido, e registra a situacao
+     * @param iteracao o numero de iteracoes concluidas
+     * @return verdadeiro se a execucao deve parar
+     */
+    protected boolean atingiuLimite(int iteracao)
+    {
+        if(cancelamentoPedido || Thread.currentThread().isInterrupted())
+        {
+            cancelamentoPedido = false;
+            situacao = SITUACAO_CANCELADO;
+            return true;
+        }
+        if(maximoIteracoes > 0 && iteracao >= maximoIteracoes)
+        {
+            situacao = SITUACAO_LIMITE_ITERACOES;
+            return true;
+        }
+        if(prazoNanos > 0)
+        {
+            // a primeira iteracao inclui a inicializacao e o codigo ainda frio,
+            // e nao serve de estimativa para a seguinte
+            long lAgora = System.nanoTime();
+            long lDuracaoIteracao = (ultimaVerificacao != 0) ? lAgora - ultimaVerificacao : 0;
+            ultimaVerificacao = lAgora;
+            if(lAgora - inicioExecucao + lDuracaoIteracao > prazoNanos)
+            {
+                situacao = SITUACAO_PRAZO_ESGOTADO;
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    
+    /**
+     * Define o ouvinte que recebe as metricas de cada iteracao (delta, J_m,
+     * tempo de cada fase e bytes alocados). Com ouvinte, J_m e calculado a
+     * cada iteracao e os bytes alocados sao somados sobre a thread da
+     * execucao e as threads do pool duas vezes por iteracao; sem ouvinte
+     * (nulo, o padrao), nada e medido. O modo mini-lotes entrega uma metrica
+     * por passo.
+     * Os eventos do JFR (cmeans.Fase) independem do ouvinte.
+     * @param ouvinte o ouvinte, ou nulo
+     */
+    public void definirOuvinte(OuvinteIteracoes ouvinte)
+    {
+        this.ouvinte = ouvinte;
+        this.metricas = (ouvinte != null) ? new MetricasIteracao() : null;
+    }
+    
+    
+    /**
+     * Inicia a medicao de uma iteracao, se houver ouvinte
+     */
+    protected void iniciarMedicao()
+    {
+        if(ouvinte != null)
+        {
+            metricas.iniciarBytes(threadsPool);
+        }
+    }
+    
+    
+    /**
+     * Preenche as metricas de uma iteracao concluida e as entrega ao ouvinte
+     * @param iteracao o numero da iteracao
+     * @param objetivoIteracao J_m da nova particao, ou NaN
+     * @param nanosCentroides o tempo do calculo dos centroides
+     * @param nanosParticoes o tempo do calculo da particao
+     */
+    protected void notificarIteracao(int iteracao, double objetivoIteracao, 
+            long nanosCentroides, long nanosParticoes)
+    {
+        metricas.concluirBytes(threadsPool);
+        metricas.iteracao = iteracao;
+        metricas.delta = deltaConvergencia;
+        metricas.objetivo = objetivoIteracao;
+        metricas.nanosCentroides = nanosCentroides;
+        metricas.nanosParticoes = nanosParticoes;
+        ouvinte.iteracaoConcluida(metricas);
+    }
+    
+    
+    /**
+     * Retorna a funcao objetivo J_m = soma_k soma_i u_ki^m ||x_k - c_i||^2 da
+     * ultima matriz de particoes calculada em relacao aos centroides que a
+     * geraram, ou NaN se o calculo nao estiver ligado
+     * (definirCalculoObjetivo)
+     */
+    public double recuperarObjetivo()
+    {
+        return objetivo;
+    }
+    
+    
+    /**
+     * Calcula a funcao objetivo J_m do resultado atual em uma passada pela
+     * base: com a matriz de particoes, se houver, com a particao esparsa, no
+     * modo esparso, ou com as pertinencias aos centroides atuais, nos modos
+     * que nao guardam a particao
+     */
+    public double calcularObjetivo()
+    {
+        return calcularIndicesValidade().recuperarObjetivo();
+    }
+    
+    
+    /**
+     * Calcula os indices de validade do resultado atual (coeficiente de
+     * particao, entropia de particao e Xie-Beni, alem de J_m) em uma passada
+     * pela base, com as pertinencias obtidas como em calcularObjetivo. Com
+     * pesos, cada instancia conta como o seu peso em copias e n e a soma dos
+     * pesos.
+     */
+    public IndicesValidade calcularIndicesValidade()
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] distancias = new double[nClusters];
+        double[] pertinencias = new double[nClusters];
+        double dObjetivo = 0;
+        double dSomaQuadrados = 0;
+        double dSomaEntropia = 0;
+        for(int k = 0; k < base.numeroInstancias; k++)
+        {
+            int iDeslocamento = base.recuperarDeslocamento(k);
+            for(int i = 0; i < nClusters; i++)
+            {
+                distancias[i] = normaQuadratica(dados, iDeslocamento, matrizCentroides[i]);
+            }
+            if(matrizParticao != null)
+            {
+                System.arraycopy(matrizParticao[k], 0, pertinencias, 0, nClusters);
+            }
+            else if(particaoEsparsa != null)
+            {
+                particaoEsparsa.copiarLinha(k, pertinencias);
+            }
+            else
+            {
+                calcularPertinenciasDistancias(distancias, pertinencias);
+            }
+            double dPeso = base.recuperarPeso(k);
+            dObjetivo += dPeso * objetivoInstancia(distancias, pertinencias);
+            for(int i = 0; i < nClusters; i++)
+            {
+                double dPertinencia = pertinencias[i];
+                dSomaQuadrados += dPeso * dPertinencia * dPertinencia;
+                if(dPertinencia > 0)
+                {
+                    dSomaEntropia -= dPeso * dPertinencia * Math.log(dPertinencia);
+                }
+            }
+        }
+        // menor distancia quadratica entre dois centroides, para o Xie-Beni
+        double dMenorSeparacao = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < nClusters; i++)
+        {
+            for(int h = i + 1; h < nClusters; h++)
+            {
+                dMenorSeparacao = Math.min(dMenorSeparacao, 
+                        normaQuadratica(matrizCentroides[i], matrizCentroides[h]));
+            }
+        }
+        double n = base.recuperarPesoTotal();
+        return new IndicesValidade(nClusters, numeroIteracoes, dObjetivo, 
+                dSomaQuadrados / n, dSomaEntropia / n, dObjetivo / (n * dMenorSeparacao));
+    }
+    
+    
+    /**
+     * Calcula a parcela de uma instancia na funcao objetivo
+     * @param distancias as distancias quadraticas da instancia aos c centroides
+     * @param pertinencias as pertinencias da instancia
+     * @return soma_i u_i^m ||x - c_i||^2
+     */
+    protected double objetivoInstancia(double[] distancias, double[] pertinencias)
+    {
+        NucleoPertinencias nucleoAtual = recuperarNucleo();
+        double dSoma = 0;
+        for(int i = 0; i < nClusters; i++)
+        {
+            if(pertinencias[i] != 0)
+            {
+                dSoma += nucleoAtual.peso(pertinencias[i]) * distancias[i];
+            }
+        }
+        return dSoma;
+    }
+    
+    
+    /**
+     * Retorna a matriz de centroides resultante
+     */
+    public double[][] recuperarMatrizCentroides() 
+    {
+        return matrizCentroides;
+    }
+    
+    
+    /**
+     * Retorna o modelo do resultado atual (centroides, m e maximos da
+     * normalizacao da base), para pontuar instancias novas
+     */
+    public ModeloCMeans recuperarModelo()
+    {
+        return new ModeloCMeans(matrizCentroides, m, base.recuperarMaximos());
+    }
+    
+    
+    /**
+     * Retorna a matriz de particoes resultante. Depois de
+     * aplicarAlgoritmoEsparso, retorna nulo; use recuperarParticaoEsparsa.
+     */
+    public double[][] recuperarMatrizParticoes() 
+    {
+        return matrizParticao;
+    }
+    
+    
+    /**
+     * Retorna a matriz de particoes esparsa resultante de
+     * aplicarAlgoritmoEsparso, ou nulo se o modo esparso nao foi aplicado.
+     * MatrizParticoesEsparsa.recuperarMatrizDensa monta a matriz no formato
+     * de recuperarMatrizParticoes.
+     */
+    public MatrizParticoesEsparsa recuperarParticaoEsparsa() 
+    {
+        return particaoEsparsa;
+    }
+    
+    
+    /**
+     * Retorna uma string que mostra os centros de clusters obtidos
+     */
+    public String recuperarResultado() 
+    {
+        if(matrizCentroides == null) {
+            return "Algoritmo nao aplicado ainda";
+        } else {
+            StringBuffer buffer = new StringBuffer();
+            for(int i = 0; i < matrizCentroides.length; i++) {
+                for(int j = 0; j < matrizCentroides[i].length; j++) {
+                    buffer.append(matrizCentroides[i][j] + "\t");
+                }
+                buffer.append("\n");
+            }
+            return buffer.toString();
+        }
+    }
+    
+    
+    /**
+     * Retorna uma string que mostra o resultado aplicação do algoritmo
+     */
+    public String toString()
+    {
+        return recuperarResultado();   
+    }
+    
+    
+    /**
+     * Calcula a norm quadratrica entre dois vetores 
+     * Formula:
+     * || vetor1 - vetor2 || ^ 2
+     */
+    protected double normaQuadratica(double[] vetor1, double[] vetor2) 
+    throws ArithmeticException
+    {
+        if(vetor1.length != vetor2.length)
+        {
+            throw new ArithmeticException("Dimensoes incompativeis no cálculo "
+                    + "da norma quadratica entre dois vetores");
+        }
+        double dSoma = 0;
+        for(int i = 0; i < vetor1.length; i++)
+        {
+            double dDiferenca = vetor1[i] - vetor2[i];
+            dSoma += dDiferenca * dDiferenca;
+        }
+        return dSoma;
+    }
+    
+    
+    /**
+     * Calcula a norma quadratica entre uma instancia armazenada em um vetor
+     * contiguo de dados e um vetor, sem alocar memoria
+     * Formula:
+     * || dados[deslocamento ...] - vetor || ^ 2
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param vetor vetor com a dimensao da instancia
+     */
+    protected double normaQuadratica(double[] dados, int deslocamento, double[] vetor) 
+    {
+        return operacoes.normaQuadratica(dados, deslocamento, vetor, vetor.length);
+    }
+    
+    
+    /**
+     * Calcula o centroide de um cluster denotado por indiceCluster,
+     * ponderando cada instancia pelo seu peso na base
+     * @param matrizParticoes a Matriz de particoes usada na ponderacao
+     * @param indiceCluster o indice do cluster, de 0 ... nClusters - 1
+     */
+    protected double[] centroide(double [][] matrizParticoes, int indiceCluster)
+    {
+        double dSomaDenominador = 0;
+        double[] vetorCentroide = new double[base.recuperarNumeroAtributos()];
+        // Inicializa o vetor
+        for(int j = 0; j < vetorCentroide.length; j++)
+        {
+            vetorCentroide[j] = 0;
+        }
+        // determina o numerador
+        NucleoPertinencias nucleoAtual = recuperarNucleo();
+        double[] dados = base.recuperarDadosContiguos();
+        for(int i = 0; i < base.recuperarNumeroInstancias(); i++)
+        {
+            double dPertinencia = base.recuperarPeso(i)
+                    * nucleoAtual.peso(matrizParticoes[i][indiceCluster]);
+            dSomaDenominador += dPertinencia;
+            operacoes.acumular(vetorCentroide, 0, dados, base.recuperarDeslocamento(i),
+                    vetorCentroide.length, dPertinencia);
+        }        
+        // divide pelo denominador
+        for(int j = 0; j < vetorCentroide.length; j++)
+        {
+            vetorCentroide[j] /= dSomaDenominador;
+        }       
+        return vetorCentroide;
+    }
+    
+    
+    /**
+     * Calcula o centroide de todos os clusters
+     * @param matrizParticoes a Matriz de particoes usada na ponderacao
+     */
+    protected double[][] calcularCentroides(double [][] matrizParticoes)
+    {
+        return calcularCentroides(matrizParticoes, 
+                new double[nClusters][base.recuperarNumeroAtributos()]);
+    }
+    
+    
+    /**
+     * Calcula o centroide de todos os clusters em uma matriz ja alocada
+     * @param matrizParticoes a Matriz de particoes usada na ponderacao
+     * @param centroides a matriz c x m atributos que recebe os centroides
+     * @return a propria matriz centroides
+     */
+    protected double[][] calcularCentroides(double [][] matrizParticoes, 
+            double[][] centroides)
+    {
+        // cada bloco acumula suas somas parciais
+        executarBlocos(BlocoInstancias.FASE_CENTROIDES, matrizParticoes);
+        return reduzirCentroides(centroides);
+    }
+    
+    
+    /**
+     * Calcula os centroides a partir das somas parciais acumuladas pelos
+     * blocos na ultima fase executada
+     * @param centroides a matriz c x m atributos que recebe os centroides
+     * @return a propria matriz centroides
+     */
+    protected double[][] reduzirCentroides(double[][] centroides)
+    {
+        reduzirSomas(somaNumeradoresReducao, somaDenominadoresReducao);
+        return dividirSomas(somaNumeradoresReducao, somaDenominadoresReducao, centroides);
+    }
+    
+    
+    /**
+     * Soma os numeradores e denominadores parciais acumulados pelos blocos
+     * na ultima fase executada, sempre na ordem dos blocos
+     * @param somaNumeradores vetor c x m atributos que recebe as somas
+     * @param somaDenominadores vetor de dimensao c que recebe as somas
+     */
+    protected void reduzirSomas(double[] somaNumeradores, double[] somaDenominadores)
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        Arrays.fill(somaNumeradores, 0);
+        Arrays.fill(somaDenominadores, 0);
+        for(int b = 0; b < blocos.length; b++)
+        {
+            double[] somaNumeradoresBloco = blocos[b].somaNumeradores;
+            for(int i = 0; i < nClusters; i++)
+            {
+                somaDenominadores[i] += blocos[b].somaDenominadores[i];
+                for(int j = i * nAtributos; j < (i + 1) * nAtributos; j++)
+                {
+                    somaNumeradores[j] += somaNumeradoresBloco[j];
+                }
+            }
+        }
+    }
+    
+    
+    /**
+     * Calcula os centroides dividindo cada numerador pelo denominador do
+     * seu cluster
+     * @param somaNumeradores vetor c x m atributos com as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     * @param centroides a matriz c x m atributos que recebe os centroides
+     * @return a propria matriz centroides
+     */
+    protected static double[][] dividirSomas(double[] somaNumeradores, 
+            double[] somaDenominadores, double[][] centroides)
+    {
+        for(int i = 0; i < centroides.length; i++)
+        {
+            int nAtributos = centroides[i].length;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                centroides[i][j] = somaNumeradores[i * nAtributos + j] / somaDenominadores[i];
+            }
+        }
+        return centroides;
+    }
+    
+    
+    /**
+     * Acumula, para os centroides dados, os numeradores e denominadores dos
+     * proximos centroides sem dividi-los, em uma passada pela base como em
+     * aplicarAlgoritmoSemParticao. As somas de partes disjuntas de uma base
+     * podem ser somadas entre si antes da divisao, o que permite distribuir
+     * uma iteracao (CoordenadorCMeans e TrabalhadorCMeans).
+     * @param centroides os centroides atuais, que passam a ser os do agrupamento
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularSomas(double[][] centroides, double[] somaNumeradores, 
+            double[] somaDenominadores)
+    {
+        matrizCentroides = centroides;
+        matrizParticao = null;
+        particaoEsparsa = null;
+        executarBlocos(BlocoInstancias.FASE_SEM_PARTICAO, null);
+        reduzirSomas(somaNumeradores, somaDenominadores);
+    }
+
+
+    /**
+     * Acumula os numeradores e denominadores dos centroides para as instancias
+     * do intervalo [inicio, fim)
+     * @param matrizParticoes a Matriz de particoes usada na ponderacao
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularCentroidesIntervalo(int inicio, int fim,
+            double[][] matrizParticoes, double[] somaNumeradores,
+            double[] somaDenominadores)
+    {
+        Arrays.fill(somaNumeradores, 0);
+        Arrays.fill(somaDenominadores, 0);
+        double[] dados = base.recuperarDadosContiguos();
+        for(int k = inicio; k < fim; k++)
+        {
+            acumularInstancia(dados, base.recuperarDeslocamento(k), matrizParticoes[k],
+                    base.recuperarPeso(k), somaNumeradores, somaDenominadores);
+        }
+    }
+    
+    
+    /**
+     * Calcula as pertinencias das instancias do intervalo [inicio, fim) em
+     * relacao aos centroides atuais e as acumula nos numeradores e
+     * denominadores dos proximos centroides, sem guardar as pertinencias
+     * @param distancias buffer de dimensao c reutilizado a cada instancia
+     * @param pertinencias buffer de dimensao c reutilizado a cada instancia
+     * @param distanciasGrupo buffer de dimensao MotorDistancias.instanciasPorGrupo
+     * x c, usado quando as distancias vem do motor
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularCentroidesSemParticaoIntervalo(int inicio, int fim,
+            double[] distancias, double[] pertinencias, double[] distanciasGrupo,
+            double[] somaNumeradores, double[] somaDenominadores)
+    {
+        Arrays.fill(somaNumeradores, 0);
+        Arrays.fill(somaDenominadores, 0);
+        double[] dados = base.recuperarDadosContiguos();
+        if(motorDistancias != null)
+        {
+            for(int g = inicio; g < fim; g += MotorDistancias.instanciasPorGrupo)
+            {
+                int iFimGrupo = Math.min(fim, g + MotorDistancias.instanciasPorGrupo);
+                motorDistancias.calcularDistancias(g, iFimGrupo, distanciasGrupo);
+                for(int k = g; k < iFimGrupo; k++)
+                {
+                    System.arraycopy(distanciasGrupo, (k - g) * nClusters, distancias, 0, nClusters);
+                    calcularPertinenciasDistancias(distancias, pertinencias);
+                    acumularInstancia(dados, base.recuperarDeslocamento(k), pertinencias,
+                            base.recuperarPeso(k), somaNumeradores, somaDenominadores);
+                }
+            }
+            return;
+        }
+        for(int k = inicio; k < fim; k++)
+        {
+            int iDeslocamento = base.recuperarDeslocamento(k);
+            calcularPertinencias(dados, iDeslocamento, matrizCentroides, distancias, pertinencias);
+            acumularInstancia(dados, iDeslocamento, pertinencias, base.recuperarPeso(k),
+                    somaNumeradores, somaDenominadores);
+        }
+    }
+    
+    
+    /**
+     * Calcula as pertinencias esparsas das instancias do intervalo
+     * [inicio, fim) em relacao aos centroides atuais, guardando-as em
+     * particaoEsparsa, e as acumula nos numeradores e denominadores dos
+     * proximos centroides, apenas nos clusters guardados
+     * @param distancias buffer de dimensao c reutilizado a cada instancia
+     * @param pertinencias buffer de dimensao c reutilizado a cada instancia
+     * @param indicesSelecionados buffer de dimensao c reutilizado a cada instancia
+     * @param distanciasGrupo buffer de dimensao MotorDistancias.instanciasPorGrupo
+     * x c, usado quando as distancias vem do motor
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularCentroidesEsparsoIntervalo(int inicio, int fim,
+            double[] distancias, double[] pertinencias, int[] indicesSelecionados,
+            double[] distanciasGrupo, double[] somaNumeradores, double[] somaDenominadores)
+    {
+        Arrays.fill(somaNumeradores, 0);
+        Arrays.fill(somaDenominadores, 0);
+        double[] dados = base.recuperarDadosContiguos();
+        int iPasso = (motorDistancias != null) ? MotorDistancias.instanciasPorGrupo : 1;
+        for(int g = inicio; g < fim; g += iPasso)
+        {
+            int iFimGrupo = Math.min(fim, g + iPasso);
+            if(motorDistancias != null)
+            {
+                motorDistancias.calcularDistancias(g, iFimGrupo, distanciasGrupo);
+            }
+            for(int k = g; k < iFimGrupo; k++)
+            {
+                int iDeslocamento = base.recuperarDeslocamento(k);
+                if(motorDistancias != null)
+                {
+                    System.arraycopy(distanciasGrupo, (k - g) * nClusters, distancias, 0, nClusters);
+                }
+                else
+                {
+                    for(int i = 0; i < nClusters; i++)
+                    {
+                        distancias[i] = normaQuadratica(dados, iDeslocamento, matrizCentroides[i]);
+                    }
+                }
+                calcularPertinenciasEsparsas(k, distancias, pertinencias, indicesSelecionados);
+                acumularInstanciaEsparsa(dados, iDeslocamento, k, somaNumeradores, 
+                        somaDenominadores);
+            }
+        }
+    }
+    
+    
+    /**
+     * Calcula as pertinencias esparsas de uma instancia e as guarda em
+     * particaoEsparsa. As k maiores pertinencias sao as dos k centroides mais
+     * proximos, e, depois da renormalizacao, cada uma e w_i / soma w_j sobre
+     * os k centroides, de modo que sem limiar apenas as k pertinencias sao
+     * calculadas. Com limiar, a linha densa e necessaria para comparar as
+     * pertinencias antes da renormalizacao.
+     * @param indiceInstancia o indice da instancia
+     * @param distancias as distancias da instancia aos c centroides; o
+     * conteudo e alterado
+     * @param pertinencias buffer de dimensao c
+     * @param indicesSelecionados buffer de dimensao c
+     */
+    protected void calcularPertinenciasEsparsas(int indiceInstancia, double[] distancias,
+            double[] pertinencias, int[] indicesSelecionados)
+    {
+        if(limiarEsparso > 0)
+        {
+            calcularPertinenciasDistancias(distancias, pertinencias);
+            particaoEsparsa.definirLinha(indiceInstancia, pertinencias, limiarEsparso);
+            return;
+        }
+        int iQuantidade = selecionarMenores(distancias, nClusters, 
+                particaoEsparsa.recuperarMaximoEntradas(), indicesSelecionados, pertinencias);
+        // as distancias selecionadas estao em pertinencias; as pertinencias
+        // renormalizadas vao para distancias
+        calcularPertinenciasDistancias(pertinencias, distancias, iQuantidade);
+        particaoEsparsa.definirEntradas(indiceInstancia, indicesSelecionados, distancias,
+                iQuantidade);
+    }
+    
+    
+    /**
+     * Seleciona os menores valores de um vetor, em ordem crescente
+     * @param valores o vetor
+     * @param n o numero de valores
+     * @param quantidade o numero de valores selecionados
+     * @param indices vetor que recebe as posicoes dos valores selecionados
+     * @param selecionados vetor que recebe os valores selecionados
+     * @return o numero de valores selecionados, min(quantidade, n)
+     */
+    protected static int selecionarMenores(double[] valores, int n, int quantidade,
+            int[] indices, double[] selecionados)
+    {
+        int iQuantidade = 0;
+        double dMaiorSelecionado = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++)
+        {
+            double dValor = valores[i];
+            if(iQuantidade == quantidade && !(dValor < dMaiorSelecionado))
+            {
+                continue;
+            }
+            int p = (iQuantidade < quantidade) ? iQuantidade++ : iQuantidade - 1;
+            while(p > 0 && selecionados[p - 1] > dValor)
+            {
+                selecionados[p] = selecionados[p - 1];
+                indices[p] = indices[p - 1];
+                p--;
+            }
+            selecionados[p] = dValor;
+            indices[p] = i;
+            dMaiorSelecionado = selecionados[iQuantidade - 1];
+        }
+        return iQuantidade;
+    }
+    
+    
+    /**
+     * Acumula a contribuicao de uma instancia nos numeradores e
+     * denominadores dos centroides a partir das suas pertinencias esparsas e
+     * do seu peso
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param indiceInstancia o indice da instancia na particao esparsa
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularInstanciaEsparsa(double[] dados, int deslocamento, 
+            int indiceInstancia, double[] somaNumeradores, double[] somaDenominadores)
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        NucleoPertinencias nucleoAtual = recuperarNucleo();
+        double dPeso = base.recuperarPeso(indiceInstancia);
+        for(int p = 0; p < particaoEsparsa.recuperarQuantidade(indiceInstancia); p++)
+        {
+            int i = particaoEsparsa.recuperarIndice(indiceInstancia, p);
+            double dPertinencia = dPeso 
+                    * nucleoAtual.peso(particaoEsparsa.recuperarValor(indiceInstancia, p));
+            somaDenominadores[i] += dPertinencia;
+            operacoes.acumular(somaNumeradores, i * nAtributos, dados, deslocamento,
+                    nAtributos, dPertinencia);
+        }
+    }
+    
+    
+    /**
+     * Acumula a contribuicao de uma instancia nos numeradores e
+     * denominadores dos centroides, ponderada pelas pertinencias elevadas a m
+     * e pelo peso da instancia
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param pertinencias as pertinencias da instancia aos c clusters
+     * @param peso o peso da instancia na base
+     * @param somaNumeradores vetor c x m atributos que recebe as somas ponderadas
+     * @param somaDenominadores vetor com a soma dos pesos de cada cluster
+     */
+    protected void acumularInstancia(double[] dados, int deslocamento, 
+            double[] pertinencias, double peso, double[] somaNumeradores, 
+            double[] somaDenominadores)
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        NucleoPertinencias nucleoAtual = recuperarNucleo();
+        for(int i = 0; i < nClusters; i++)
+        {
+            double dPertinencia = peso * nucleoAtual.peso(pertinencias[i]);
+            somaDenominadores[i] += dPertinencia;
+            operacoes.acumular(somaNumeradores, i * nAtributos, dados, deslocamento,
+                    nAtributos, dPertinencia);
+        }
+    }
+
+
+    /**
+     * Retorna o nucleo de calculo para o m atual, escolhido novamente se o m
+     * tiver mudado
+     */
+    protected NucleoPertinencias recuperarNucleo()
+    {
+        NucleoPertinencias nucleoAtual = nucleo;
+        if(nucleoAtual == null || nucleoAtual.recuperarM() != m)
+        {
+            nucleoAtual = NucleoPertinencias.selecionar(m);
+            nucleo = nucleoAtual;
+        }
+        return nucleoAtual;
+    }
+
+
+    /**
+     * Executa uma fase da iteracao sobre todos os blocos de instancias,
+     * no ForkJoinPool ou, se a execucao for serial, na propria thread
+     * @param fase a fase, conforme as constantes de BlocoInstancias
+     * @param matrizParticoes a matriz de particoes lida ou escrita pela fase
+     */
+    protected void executarBlocos(int fase, double[][] matrizParticoes)
+    {
+        if(blocos == null || blocos[blocos.length - 1].fim != base.numeroInstancias
+                || blocos[0].somaDenominadores.length != nClusters)
+        {
+            blocos = BlocoInstancias.dividir(this, base.numeroInstancias,
+                    nClusters, base.recuperarNumeroAtributos(), paralelismo);
+            grupoBlocos = new BlocoInstancias.Grupo(blocos);
+            somaDenominadoresReducao = new double[nClusters];
+            somaNumeradoresReducao = new double[nClusters * base.recuperarNumeroAtributos()];
+        }
+        prepararMotorDistancias(fase);
+        for(int b = 0; b < blocos.length; b++)
+        {
+            blocos[b].preparar(fase, matrizParticoes);
+        }
+        if(pool == null)
+        {
+            for(int b = 0; b < blocos.length; b++)
+            {
+                blocos[b].compute();
+            }
+        }
+        else
+        {
+            grupoBlocos.reinitialize();
+            pool.invoke(grupoBlocos);
+        }
+    }
+    
+    
+    /**
+     * Ativa o motor de distancias para as fases que calculam pertinencias,
+     * se o numero de clusters e o de atributos forem grandes o bastante
+     * para que os blocos compensem, e prepara os centroides
+     * da iteracao; caso contrario, desativa o motor
+     * @param fase a fase, conforme as constantes de BlocoInstancias
+     */
+    protected void prepararMotorDistancias(int fase)
+    {
+        if(fase == BlocoInstancias.FASE_CENTROIDES || nClusters < minimoClustersBlocos
+                || base.recuperarNumeroAtributos() < MotorDistancias.minimoAtributos)
+        {
+            motorDistancias = null;
+            return;
+        }
+        if(motorDistancias == null || motorDistancias.base != base
+                || motorDistancias.nClusters != nClusters
+                || motorDistancias.operacoes != operacoes)
+        {
+            motorDistancias = new MotorDistancias(base, nClusters, operacoes);
+        }
+        motorDistancias.prepararCentroides(matrizCentroides);
+    }
+    
+    
+    /**
+     * Indica se houve convergencia do algoritmo
+     * @param matrizParticoesAnterior particoes(t)
+     * @param matrizParticoesAtual particoes(t+1)
+     * @returns True se convergiu. False caso contrario.
+     */
+    protected boolean convergiu(double [][] matrizParticoesAnterior, 
+            double [][] matrizParticoesAtual, int nIteracao)
+    {
+        double dMaximaDiferenca = 0;
+        // busca a maxima diferenca entre pertinencias nas duas matrizes
+        for(int i = 0; i < matrizParticoesAnterior.length; i++)
+        {
+            for(int j = 0; j < matrizParticoesAnterior[i].length; j++)
+            {
+                dMaximaDiferenca += Math.abs(matrizParticoesAnterior[i][j] 
+                        - matrizParticoesAtual[i][j] );
+            }
+        }        
+        deltaConvergencia = dMaximaDiferenca;
+        return (dMaximaDiferenca <= epsilon) ? true : false;
+    }
+    
+    
+    /**
+     * Indica se os centroides convergiram, pela soma das diferencas
+     * absolutas entre as coordenadas dos centroides de duas iteracoes
+     * @param centroidesAnteriores centroides(t)
+     * @param centroidesAtuais centroides(t+1)
+     * @returns True se convergiu. False caso contrario.
+     */
+    protected boolean convergiuCentroides(double[][] centroidesAnteriores,
+            double[][] centroidesAtuais)
+    {
+        double dDiferenca = 0;
+        for(int i = 0; i < centroidesAnteriores.length; i++)
+        {
+            for(int j = 0; j < centroidesAnteriores[i].length; j++)
+            {
+                dDiferenca += Math.abs(centroidesAnteriores[i][j] - centroidesAtuais[i][j]);
+            }
+        }
+        deltaConvergencia = dDiferenca;
+        return dDiferenca <= epsilon;
+    }
+    
+    
+    /**
+     * Sorteia c instancias distintas da base como centroides iniciais. Se a
+     * base tiver menos de c instancias, algumas se repetem.
+     * @param aleatorio o gerador de numeros aleatorios
+     */
+    protected double[][] sortearCentroides(Random aleatorio)
+    {
+        int[] indices = new int[nClusters];
+        double[][] centroides = new double[nClusters][];
+        for(int i = 0; i < nClusters; i++)
+        {
+            boolean bRepetido;
+            do
+            {
+                indices[i] = aleatorio.nextInt(base.numeroInstancias);
+                bRepetido = false;
+                for(int h = 0; h < i && i < base.numeroInstancias; h++)
+                {
+                    bRepetido |= (indices[h] == indices[i]);
+                }
+            }
+            while(bRepetido);
+            centroides[i] = base.recuperarInstancia(indices[i]);
+        }
+        return centroides;
+    }
+    
+    
+    /**
+     * Escolhe c centroides iniciais entre as instancias da base: pelo
+     * k-means++, se essa for a inicializacao definida, ou pelo sorteio simples
+     * @param aleatorio o gerador de numeros aleatorios
+     */
+    protected double[][] centroidesSorteados(Random aleatorio)
+    {
+        if(inicializacao == INICIALIZACAO_KMEANSPP)
+        {
+            return centroidesKMeansMaisMais(aleatorio, tamanhoAmostraInicializacao);
+        }
+        return sortearCentroides(aleatorio);
+    }
+    
+    
+    /**
+     * Escolhe c centroides iniciais pelo sorteio do k-means++: o primeiro e
+     * uma instancia qualquer e cada um dos seguintes e sorteado com
+     * probabilidade proporcional a D^2, a distancia quadratica da instancia
+     * ao centroide mais proximo ja escolhido (w D^2, se a base tiver pesos,
+     * como se cada instancia aparecesse w vezes). As menores distancias de cada
+     * instancia sao atualizadas apenas com o ultimo centroide, de modo que o
+     * custo total e O(amostra x c x m atributos), o de uma iteracao sobre a
+     * amostra. Se todas as instancias coincidirem com centroides ja
+     * escolhidos, o sorteio passa a ser uniforme.
+     * @param aleatorio o gerador de numeros aleatorios
+     * @param tamanhoAmostra o numero de instancias sorteadas, com reposicao,
+     * sobre as quais os centroides sao escolhidos; 0, ou um valor maior ou
+     * igual ao numero de instancias, usa a base inteira
+     */
+    protected double[][] centroidesKMeansMaisMais(Random aleatorio, int tamanhoAmostra)
+    {
+        return completarCentroidesKMeansMaisMais(new double[nClusters][], 0, aleatorio, 
+                tamanhoAmostra);
+    }
+    
+    
+    /**
+     * Completa uma matriz de centroides pelo sorteio do k-means++, a partir
+     * dos centroides ja escolhidos, por exemplo os de uma solucao com menos
+     * clusters
+     * @param centroides a matriz de c linhas, cujas qtDados primeiras ja
+     * estao preenchidas; as demais recebem instancias da base
+     * @param qtDados o numero de centroides ja escolhidos; com 0, o primeiro
+     * centroide e sorteado uniformemente
+     * @param aleatorio o gerador de numeros aleatorios
+     * @param tamanhoAmostra como em centroidesKMeansMaisMais
+     * @return a propria matriz centroides
+     */
+    protected double[][] completarCentroidesKMeansMaisMais(double[][] centroides, int qtDados,
+            Random aleatorio, int tamanhoAmostra)
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        double[] dados = base.recuperarDadosContiguos();
+        boolean bBaseInteira = (tamanhoAmostra <= 0 || tamanhoAmostra >= base.numeroInstancias);
+        int iTamanho = bBaseInteira ? base.numeroInstancias : tamanhoAmostra;
+        int[] deslocamentos = new int[iTamanho];
+        double[] pesos = (base.recuperarPesos() != null) ? new double[iTamanho] : null;
+        for(int p = 0; p < iTamanho; p++)
+        {
+            int k = bBaseInteira ? p : aleatorio.nextInt(base.numeroInstancias);
+            deslocamentos[p] = base.recuperarDeslocamento(k);
+            if(pesos != null)
+            {
+                pesos[p] = base.recuperarPeso(k);
+            }
+        }
+        double[] menoresDistancias = new double[iTamanho];
+        Arrays.fill(menoresDistancias, Double.POSITIVE_INFINITY);
+        double dTotal = 0;
+        for(int i = 0; i < qtDados; i++)
+        {
+            dTotal = atualizarMenoresDistancias(dados, deslocamentos, pesos, 
+                    menoresDistancias, centroides[i]);
+        }
+        for(int i = qtDados; i < nClusters; i++)
+        {
+            // sorteia a proxima instancia com probabilidade w D^2 / total
+            int iEscolhida = (dTotal > 0) 
+                    ? sortearPorDistancia(menoresDistancias, dTotal, aleatorio)
+                    : aleatorio.nextInt(iTamanho);
+            centroides[i] = Arrays.copyOfRange(dados, deslocamentos[iEscolhida], 
+                    deslocamentos[iEscolhida] + nAtributos);
+            if(i < nClusters - 1)
+            {
+                dTotal = atualizarMenoresDistancias(dados, deslocamentos, pesos, 
+                        menoresDistancias, centroides[i]);
+            }
+        }
+        return centroides;
+    }
+    
+    
+    /**
+     * Atualiza D^2, a menor distancia quadratica de cada instancia da
+     * amostra aos centroides escolhidos, com um novo centroide. Com pesos, o
+     * valor guardado e w D^2, que e minimo no mesmo centroide que D^2.
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamentos a posicao de cada instancia da amostra
+     * @param pesos o peso de cada instancia da amostra, ou nulo se todas
+     * pesam 1
+     * @param menoresDistancias w D^2 de cada instancia, atualizado
+     * @param centroide o novo centroide
+     * @return a soma de w D^2 sobre a amostra
+     */
+    protected double atualizarMenoresDistancias(double[] dados, int[] deslocamentos,
+            double[] pesos, double[] menoresDistancias, double[] centroide)
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        double dTotal = 0;
+        for(int p = 0; p < deslocamentos.length; p++)
+        {
+            double dDistancia = operacoes.normaQuadratica(dados, deslocamentos[p], 
+                    centroide, nAtributos);
+            if(pesos != null)
+            {
+                dDistancia *= pesos[p];
+            }
+            if(dDistancia < menoresDistancias[p])
+            {
+                menoresDistancias[p] = dDistancia;
+            }
+            dTotal += menoresDistancias[p];
+        }
+        return dTotal;
+    }
+    
+    
+    /**
+     * Sorteia uma posicao com probabilidade proporcional ao seu peso
+     * @param pesos os pesos, nao negativos
+     * @param total a soma dos pesos, maior do que 0
+     * @param aleatorio o gerador de numeros aleatorios
+     * @return a posicao sorteada, sempre de peso positivo
+     */
+    protected static int sortearPorDistancia(double[] pesos, double total, Random aleatorio)
+    {
+        double dAlvo = aleatorio.nextDouble() * total;
+        int iEscolhida = -1;
+        for(int p = 0; p < pesos.length; p++)
+        {
+            if(pesos[p] > 0)
+            {
+                iEscolhida = p;
+                dAlvo -= pesos[p];
+                if(dAlvo < 0)
+                {
+                    break;
+                }
+            }
+        }
+        return iEscolhida;
+    }
+    
+    
+    /**
+     * Inicializa aleatoriamente a matriz de particoes, observando
+     * as regras de soma linha e soma coluna p. 28 slide, com a semente de
+     * definirInicializacao
+     */
+    public double[][] inicializaMatrizParticoes()
+    {
+        return inicializaMatrizParticoes(sementeInicializacao);
+    }
+    
+    
+    /**
+     * Inicializa aleatoriamente a matriz de particoes. Cada linha e sorteada
+     * uniformemente entre as que somam 1 (distribuicao de Dirichlet com
+     * parametros 1), e todas as pertinencias sao positivas, de modo que
+     * nenhuma coluna fica zerada. As linhas sao divididas em trechos de
+     * instanciasPorSementeParticao, cada um com seu gerador SplittableRandom
+     * derivado da semente, de modo que a matriz depende apenas da semente, e
+     * nao do numero de threads. Com mais de uma thread e uma matriz grande,
+     * os trechos sao preenchidos em paralelo no pool das iteracoes.
+     * @param semente a semente do sorteio
+     */
+    public double[][] inicializaMatrizParticoes(long semente)
+    {
+        // as linhas sao alocadas por trecho, tambem em paralelo
+        final double[][] dMatrizAleatoria = new double[base.numeroInstancias][];
+        final long[] sementes = sementesParticao(semente);
+        if(pool == null || (long) base.numeroInstancias * nClusters < minimoCelulasParticaoParalela)
+        {
+            for(int t = 0; t < sementes.length; t++)
+            {
+                inicializaTrechoParticoes(dMatrizAleatoria, t, sementes[t]);
+            }
+            return dMatrizAleatoria;
+        }
+        List<Callable<Void>> tarefas = new ArrayList<Callable<Void>>(sementes.length);
+        for(int t = 0; t < sementes.length; t++)
+        {
+            final int iTrecho = t;
+            tarefas.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    inicializaTrechoParticoes(dMatrizAleatoria, iTrecho, sementes[iTrecho]);
+                    return null;
+                }
+            });
+        }
+        pool.invokeAll(tarefas);
+        return dMatrizAleatoria;
+    }
+    
+    
+    /**
+     * Deriva, em ordem, a semente de cada trecho de
+     * instanciasPorSementeParticao linhas
+     * @param semente a semente da particao
+     */
+    protected long[] sementesParticao(long semente)
+    {
+        SplittableRandom raiz = new SplittableRandom(semente);
+        long[] sementes = new long[(base.numeroInstancias + instanciasPorSementeParticao - 1)
+                / instanciasPorSementeParticao];
+        for(int t = 0; t < sementes.length; t++)
+        {
+            sementes[t] = raiz.nextLong();
+        }
+        return sementes;
+    }
+    
+    
+    /**
+     * Aloca e sorteia as linhas de um trecho da matriz de particoes
+     * @param matriz a matriz de particoes
+     * @param trecho o indice do trecho
+     * @param semente a semente do trecho
+     */
+    protected void inicializaTrechoParticoes(double[][] matriz, int trecho, long semente)
+    {
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        int iFim = Math.min(base.numeroInstancias, (trecho + 1) * instanciasPorSementeParticao);
+        for(int k = trecho * instanciasPorSementeParticao; k < iFim; k++)
+        {
+            matriz[k] = new double[nClusters];
+            inicializaLinhaParticoes(matriz[k], aleatorio);
+        }
+    }
+    
+    
+    /**
+     * Inicializa aleatoriamente uma linha da matriz de particoes, de modo
+     * que a soma da linha seja 1, em O(c): as pertinencias sao exponenciais
+     * independentes divididas pela sua soma
+     * @param linha o vetor de dimensao c que recebe as pertinencias
+     * @param aleatorio o gerador de numeros aleatorios do trecho
+     */
+    protected void inicializaLinhaParticoes(double[] linha, SplittableRandom aleatorio)
+    {
+        double dSomaLinha = 0;
+        for(int i = 0; i < nClusters; i++)
+        {
+            // 1 - u fica em (0, 1], entao o valor e finito; MIN_NORMAL evita o zero
+            linha[i] = -Math.log(1 - aleatorio.nextDouble()) + Double.MIN_NORMAL;
+            dSomaLinha += linha[i];
+        }
+        for(int i = 0; i < nClusters; i++)
+        {
+            linha[i] /= dSomaLinha;
+        }
+    }
+    
+    
+    /**
+     * Calcula a nova matriz de particoes
+     */
+    public double[][] calculaNovaMatrizParticoes()
+    {
+        return calculaNovaMatrizParticoes(new double[base.numeroInstancias][nClusters]);
+    }
+    
+    
+    /**
+     * Calcula a nova matriz de particoes em uma matriz ja alocada
+     * @param dMatrizCalculada a matriz n x c que recebe as pertinencias
+     * @return a propria matriz dMatrizCalculada
+     */
+    public double[][] calculaNovaMatrizParticoes(double[][] dMatrizCalculada)
+    {
+    	executarBlocos(BlocoInstancias.FASE_PARTICOES, dMatrizCalculada);
+        if(calculoObjetivo || ouvinte != null || memoriaAceleracao > 0)
+        {
+            // reduz as parcelas do objetivo, sempre na ordem dos blocos
+            double dObjetivo = 0;
+            for(int b = 0; b < blocos.length; b++)
+            {
+                dObjetivo += blocos[b].somaObjetivo;
+            }
+            objetivo = dObjetivo;
+        }
+        return dMatrizCalculada;
+    }
+    
+    
+    /**
+     * Calcula as linhas da nova matriz de particoes para as instancias do
+     * intervalo [inicio, fim). Cada linha depende apenas da instancia e dos
+     * centroides atuais, de modo que intervalos distintos podem ser
+     * calculados em paralelo.
+     * @param dMatrizCalculada a matriz que recebe as novas pertinencias
+     * @param distancias buffer de dimensao c reutilizado a cada linha
+     * @param distanciasGrupo buffer de dimensao MotorDistancias.instanciasPorGrupo
+     * x c, usado quando as distancias vem do motor
+     * @return a parcela do intervalo na funcao objetivo, se o calculo do
+     * objetivo estiver ligado ou houver ouvinte, ou 0
+     */
+    protected double calcularParticoesIntervalo(int inicio, int fim, 
+            double[][] dMatrizCalculada, double[] distancias, double[] distanciasGrupo)
+    {
+        boolean bObjetivo = calculoObjetivo || ouvinte != null || memoriaAceleracao > 0;
+        double dObjetivo = 0;
+        if(motorDistancias != null)
+        {
+            for(int g = inicio; g < fim; g += MotorDistancias.instanciasPorGrupo)
+            {
+                int iFimGrupo = Math.min(fim, g + MotorDistancias.instanciasPorGrupo);
+                motorDistancias.calcularDistancias(g, iFimGrupo, distanciasGrupo);
+                for(int k = g; k < iFimGrupo; k++)
+                {
+                    System.arraycopy(distanciasGrupo, (k - g) * nClusters, distancias, 0, nClusters);
+                    calcularPertinenciasDistancias(distancias, dMatrizCalculada[k]);
+                    if(bObjetivo)
+                    {
+                        dObjetivo += base.recuperarPeso(k) 
+                                * objetivoInstancia(distancias, dMatrizCalculada[k]);
+                    }
+                }
+            }
+            return dObjetivo;
+        }
+        double[] dados = base.recuperarDadosContiguos();
+        for(int k = inicio; k < fim; k++)
+        {
+            calcularPertinencias(dados, base.recuperarDeslocamento(k), 
+                    matrizCentroides, distancias, dMatrizCalculada[k]);
+            if(bObjetivo)
+            {
+                dObjetivo += base.recuperarPeso(k) 
+                        * objetivoInstancia(distancias, dMatrizCalculada[k]);
+            }
+        }
+        return dObjetivo;
+    }
+    
+    
+    /**
+     * Calcula as pertinencias de uma instancia aos c clusters. As c
+     * distancias da instancia sao calculadas uma unica vez e as pertinencias
+     * sao derivadas delas pelo nucleo escolhido para o m.
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param centroides a matriz de centroides
+     * @param distancias buffer de dimensao c que recebe as distancias
+     * @param pertinencias vetor de dimensao c que recebe as pertinencias
+     */
+    protected void calcularPertinencias(double[] dados, int deslocamento,
+            double[][] centroides, double[] distancias, double[] pertinencias)
+    {
+        for(int i = 0; i < nClusters; i++)
+        {
+            distancias[i] = normaQuadratica(dados, deslocamento, centroides[i]);
+        }
+        calcularPertinenciasDistancias(distancias, pertinencias);
+    }
+    
+    
+    /**
+     * Calcula as pertinencias de uma instancia a partir das suas distancias
+     * aos c centroides
+     * @param distancias as distancias quadraticas da instancia aos centroides
+     * @param pertinencias vetor de dimensao c que recebe as pertinencias
+     */
+    protected void calcularPertinenciasDistancias(double[] distancias, double[] pertinencias)
+    {
+        calcularPertinenciasDistancias(distancias, pertinencias, nClusters);
+    }
+    
+    
+    /**
+     * Calcula as pertinencias de uma instancia a partir das suas distancias
+     * a um subconjunto dos centroides, com soma 1 no subconjunto
+     * @param distancias as distancias quadraticas da instancia aos centroides
+     * do subconjunto
+     * @param pertinencias vetor que recebe as pertinencias
+     * @param quantidade o numero de centroides do subconjunto
+     */
+    protected void calcularPertinenciasDistancias(double[] distancias, double[] pertinencias,
+            int quantidade)
+    {
+        recuperarNucleo().calcularPertinenciasDistancias(distancias, pertinencias, quantidade);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * AgrupamentoMultiplo.java
+ *
+ * Created on 19 de Outubro de 2026, 10:20
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Executa o C-Means varias vezes sobre a mesma base, a partir de
+ * inicializacoes diferentes, e escolhe o resultado de menor funcao objetivo
+ * J_m. As execucoes rodam ao mesmo tempo em um pool de threads, cada uma
+ * serial. A execucao r sorteia seus centroides iniciais (por padrao, c
+ * instancias; ou pelo k-means++) com a semente semente + r, de modo que
+ * cada execucao e reproduzivel isoladamente.
+ * Uma execucao que, depois de um numero minimo de iteracoes, tenha objetivo
+ * maior do que o da melhor execucao ja concluida com uma margem e
+ * interrompida, ja que o objetivo do C-Means so diminui de uma iteracao
+ * para a outra e dificilmente recupera a diferenca. Como o cancelamento
+ * depende da ordem em que as execucoes terminam, o resultado so e
+ * independente do numero de threads com o cancelamento desligado
+ * (margem infinita). Os limites de iteracoes e de tempo e a aceleracao,
+ * quando definidos, valem para cada execucao.
+ * @author Daniel Saraiva Leite
+ */
+public class AgrupamentoMultiplo
+{
+    public static final int numeroExecucoesPadrao = 8;
+    public static final double margemCancelamentoPadrao = 0.1; // 10% acima do melhor
+    public static final int minimoIteracoesCancelamentoPadrao = 10;
+    protected BaseDados base;
+    protected int nClusters;
+    protected double epsilon;
+    protected double m;
+    protected int numeroExecucoes = numeroExecucoesPadrao;
+    protected int paralelismo = 1; // execucoes simultaneas
+    protected long semente;
+    protected double margemCancelamento = margemCancelamentoPadrao;
+    protected int minimoIteracoesCancelamento = minimoIteracoesCancelamentoPadrao;
+    protected int inicializacao = AgrupamentoCMeans.INICIALIZACAO_SORTEIO;
+    protected int tamanhoAmostraInicializacao; // amostra do k-means++, 0 = base inteira
+    protected int maximoIteracoes;     // de cada execucao, 0 = sem limite
+    protected long prazoMilissegundos; // de cada execucao, 0 = sem limite
+    protected int memoriaAceleracao;   // 0 = sem aceleracao
+    protected double[] objetivos;   // J_m final de cada execucao
+    protected int[] iteracoes;      // iteracoes de cada execucao
+    protected int[] situacoes;      // como terminou cada execucao
+    protected boolean[] canceladas; // execucoes interrompidas
+    protected volatile double melhorObjetivo; // menor J_m entre as concluidas
+    protected int indiceMelhor;
+    protected AgrupamentoCMeans melhor;
+
+
+    /** Construtor
+     * @param base a Base de Dados
+     * @param nClusters o numero de clusters
+     */
+    public AgrupamentoMultiplo(BaseDados base, int nClusters)
+    {
+        this(base, nClusters, AgrupamentoCMeans.epsilonPadrao, AgrupamentoCMeans.mPadrao);
+    }
+
+
+    /**
+     * Construtor que especifica qual o epsilon e m a serem utilizados
+     * @param base a Base de Dados
+     * @param nClusters o numero de clusters
+     * @param epsilon o criterio de parada de cada execucao
+     * @param m o expoente das pertinencias
+     */
+    public AgrupamentoMultiplo(BaseDados base, int nClusters, double epsilon, double m)
+    {
+        this.base = base;
+        this.nClusters = nClusters;
+        this.epsilon = epsilon;
+        this.m = m;
+        this.semente = System.nanoTime();
+    }
+
+
+    /**
+     * Define o numero de execucoes independentes
+     * @param numeroExecucoes o numero de execucoes, ao menos 1
+     */
+    public void definirNumeroExecucoes(int numeroExecucoes)
+    {
+        this.numeroExecucoes = Math.max(1, numeroExecucoes);
+    }
+
+
+    /**
+     * Define o numero de execucoes simultaneas
+     * @param paralelismo o numero de threads. Se menor ou igual a 1, as
+     * execucoes sao feitas uma apos a outra.
+     */
+    public void definirParalelismo(int paralelismo)
+    {
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+
+    /**
+     * Define a semente da primeira execucao; a execucao r usa semente + r
+     */
+    public void definirSemente(long semente)
+    {
+        this.semente = semente;
+    }
+
+
+    /**
+     * Define a inicializacao de cada execucao, como em
+     * AgrupamentoCMeans.definirInicializacao
+     * @param estrategia uma das constantes AgrupamentoCMeans.INICIALIZACAO_*
+     * @param tamanhoAmostra a amostra do k-means++; 0 usa a base inteira
+     */
+    public void definirInicializacao(int estrategia, int tamanhoAmostra)
+    {
+        this.inicializacao = estrategia;
+        this.tamanhoAmostraInicializacao = tamanhoAmostra;
+    }
+
+
+    /**
+     * Limita cada execucao, como em AgrupamentoCMeans.definirLimites
+     * @param maximoIteracoes o numero maximo de iteracoes; 0 para nao limitar
+     * @param prazoMilissegundos o tempo maximo de cada execucao; 0 para nao
+     * limitar
+     */
+    public void definirLimites(int maximoIteracoes, long prazoMilissegundos)
+    {
+        this.maximoIteracoes = Math.max(0, maximoIteracoes);
+        this.prazoMilissegundos = Math.max(0, prazoMilissegundos);
+    }
+
+
+    /**
+     * Liga a aceleracao de Anderson em cada execucao, como em
+     * AgrupamentoCMeans.definirAceleracao
+     * @param memoria o numero de iteracoes anteriores combinadas; 0 desliga
+     */
+    public void definirAceleracao(int memoria)
+    {
+        this.memoriaAceleracao = Math.max(0, memoria);
+    }
+
+
+    /**
+     * Define quando uma execucao e interrompida
+     * @param margem a fracao em que o objetivo da execucao deve superar o da
+     * melhor execucao concluida (0.1 = 10% maior); Double.POSITIVE_INFINITY
+     * desliga o cancelamento
+     * @param minimoIteracoes o numero de iteracoes antes do qual nenhuma
+     * execucao e interrompida
+     */
+    public void definirCancelamento(double margem, int minimoIteracoes)
+    {
+        this.margemCancelamento = margem;
+        this.minimoIteracoesCancelamento = minimoIteracoes;
+    }
+
+
+    /**
+     * Executa as inicializacoes e retorna o agrupamento de menor objetivo.
+     * Os agrupamentos das demais execucoes sao descartados assim que
+     * terminam, de modo que a memoria usada e a de uma execucao por thread
+     * mais a da melhor.
+     * @return o melhor agrupamento, com recuperarObjetivo preenchido
+     */
+    public AgrupamentoCMeans aplicar() throws Exception
+    {
+        objetivos = new double[numeroExecucoes];
+        iteracoes = new int[numeroExecucoes];
+        situacoes = new int[numeroExecucoes];
+        canceladas = new boolean[numeroExecucoes];
+        melhorObjetivo = Double.POSITIVE_INFINITY;
+        indiceMelhor = -1;
+        melhor = null;
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(paralelismo, numeroExecucoes));
+        try
+        {
+            List<Future<?>> tarefas = new ArrayList<Future<?>>();
+            for(int r = 0; r < numeroExecucoes; r++)
+            {
+                final int iExecucao = r;
+                tarefas.add(executor.submit(new Callable<Void>()
+                {
+                    public Void call()
+                    {
+                        executar(iExecucao);
+                        return null;
+                    }
+                }));
+            }
+            for(Future<?> tarefa : tarefas)
+            {
+                try
+                {
+                    tarefa.get();
+                }
+                catch(ExecutionException exc)
+                {
+                    throw (exc.getCause() instanceof Exception)
+                            ? (Exception) exc.getCause() : exc;
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return melhor;
+    }
+
+
+    /**
+     * Executa a inicializacao r e registra o seu resultado
+     * @param r o indice da execucao
+     */
+    protected void executar(int r)
+    {
+        Execucao execucao = new Execucao();
+        execucao.definirCalculoObjetivo(true);
+        execucao.definirInicializacao(inicializacao, tamanhoAmostraInicializacao, semente + r);
+        execucao.definirLimites(maximoIteracoes, prazoMilissegundos);
+        execucao.definirAceleracao(memoriaAceleracao);
+        execucao.aplicarAlgoritmo();
+        registrar(r, execucao);
+    }
+
+
+    /**
+     * Registra o resultado de uma execucao e guarda o agrupamento se ele for
+     * o melhor ate agora. Em caso de empate, fica a execucao de menor indice.
+     */
+    protected synchronized void registrar(int r, Execucao execucao)
+    {
+        objetivos[r] = execucao.recuperarObjetivo();
+        iteracoes[r] = execucao.recuperarNumeroIteracoes();
+        situacoes[r] = execucao.recuperarSituacao();
+        canceladas[r] = (situacoes[r] == AgrupamentoCMeans.SITUACAO_CANCELADO);
+        if(canceladas[r])
+        {
+            return;
+        }
+        if(objetivos[r] < melhorObjetivo
+                || (objetivos[r] == melhorObjetivo && r < indiceMelhor))
+        {
+            melhorObjetivo = objetivos[r];
+            indiceMelhor = r;
+            melhor = execucao;
+        }
+    }
+
+
+    /**
+     * Retorna o melhor agrupamento da ultima chamada a aplicar
+     */
+    public AgrupamentoCMeans recuperarMelhor()
+    {
+        return melhor;
+    }
+
+
+    /**
+     * Retorna o indice da melhor execucao
+     */
+    public int recuperarIndiceMelhor()
+    {
+        return indiceMelhor;
+    }
+
+
+    /**
+     * Retorna o objetivo J_m de cada execucao; nas interrompidas, o da
+     * ultima iteracao feita
+     */
+    public double[] recuperarObjetivos()
+    {
+        return objetivos;
+    }
+
+
+    /**
+     * Retorna o numero de iteracoes de cada execucao
+     */
+    public int[] recuperarIteracoes()
+    {
+        return iteracoes;
+    }
+
+
+    /**
+     * Retorna como terminou cada execucao, uma das constantes
+     * AgrupamentoCMeans.SITUACAO_*
+     */
+    public int[] recuperarSituacoes()
+    {
+        return situacoes;
+    }
+
+
+    /**
+     * Indica, para cada execucao, se ela foi interrompida
+     */
+    public boolean[] recuperarCanceladas()
+    {
+        return canceladas;
+    }
+
+
+    /**
+     * Retorna uma linha por execucao com o objetivo e as iteracoes
+     */
+    public String recuperarResumo()
+    {
+        StringBuilder resumo = new StringBuilder();
+        for(int r = 0; r < objetivos.length; r++)
+        {
+            resumo.append(String.format("Execucao %d (semente %d): J = %.6f, %d iteracoes%s%s%n",
+                    r, semente + r, objetivos[r], iteracoes[r],
+                    canceladas[r] ? ", interrompida"
+                    : (situacoes[r] != AgrupamentoCMeans.SITUACAO_CONVERGIU)
+                    ? ", " + AgrupamentoCMeans.nomesSituacoes[situacoes[r]] : "",
+                    (r == indiceMelhor) ? ", melhor" : ""));
+        }
+        return resumo.toString();
+    }
+
+
+    /**
+     * Uma execucao que se cancela quando fica para tras da melhor concluida,
+     * terminando com a situacao SITUACAO_CANCELADO
+     */
+    protected class Execucao extends AgrupamentoCMeans
+    {
+        public Execucao()
+        {
+            super(AgrupamentoMultiplo.this.base, AgrupamentoMultiplo.this.nClusters,
+                    AgrupamentoMultiplo.this.epsilon, AgrupamentoMultiplo.this.m);
+        }
+
+
+        protected boolean convergiu(double [][] matrizParticoesAnterior,
+                double [][] matrizParticoesAtual, int nIteracao)
+        {
+            if(super.convergiu(matrizParticoesAnterior, matrizParticoesAtual, nIteracao))
+            {
+                return true;
+            }
+            if(nIteracao >= minimoIteracoesCancelamento
+                    && objetivo > (1 + margemCancelamento) * melhorObjetivo)
+            {
+                // atingiuLimite encerra a execucao com SITUACAO_CANCELADO
+                cancelar();
+            }
+            return false;
+        }
+    }
+}
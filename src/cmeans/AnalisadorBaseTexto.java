@@ -0,0 +1,400 @@
+/*
+ * AnalisadorBaseTexto.java
+ *
+ * Created on 18 de Outubro de 2026, 13:40
+ */
+
+package cmeans;
+import java.util.*;
+
+/**
+ * Analisador de uma passada do formato texto da base de dados. Os caracteres
+ * sao recebidos em blocos, as linhas sao separadas sem criar Strings e os
+ * numeros sao convertidos diretamente para um vetor primitivo que cresce
+ * conforme a necessidade. O maximo de cada atributo e calculado durante a
+ * leitura, de modo que a normalizacao nao precisa buscar os maximos.
+ * Linhas iniciadas por # ou // sao comentarios e linhas em branco sao
+ * ignoradas.
+ * @author Daniel Saraiva Leite
+ */
+public class AnalisadorBaseTexto
+{
+    protected static final int capacidadeInicial = 1 << 16;
+    protected static final int limiteValores = Integer.MAX_VALUE - 8;
+    // potencias de 10 representadas exatamente em double
+    protected static final double[] potencias10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    protected static final long limiteMantissa = 1L << 53;
+
+    protected double[] valores = new double[capacidadeInicial];
+    protected int qtValores;
+    protected int numeroAtributos = -1; // conhecido apos a primeira instancia
+    protected int numeroInstancias;
+    protected double[] maximos;
+    protected int numeroLinha; // numero da linha em analise
+    protected int linhaPrimeiraInstancia; // linha que definiu o numero de atributos
+    protected char[] linha = new char[256];
+    protected int tamanhoLinha;
+    protected boolean bUltimoFoiRetorno; // para tratar \r\n entre dois blocos
+
+
+    /**
+     * Construtor
+     * @param linhasAnteriores numero de linhas ja consumidas do arquivo antes
+     * do primeiro caractere recebido, usado nas mensagens de erro
+     */
+    public AnalisadorBaseTexto(int linhasAnteriores)
+    {
+        this.numeroLinha = linhasAnteriores;
+    }
+
+
+    /**
+     * Aumenta de uma vez a capacidade do vetor de valores, usado quando o
+     * tamanho aproximado da entrada e conhecido
+     * @param capacidade o numero de valores previsto
+     */
+    public void reservar(long capacidade)
+    {
+        if(capacidade > valores.length)
+        {
+            valores = Arrays.copyOf(valores, (int) Math.min(capacidade, limiteValores));
+        }
+    }
+
+
+    /**
+     * Processa um bloco de caracteres do arquivo. Uma linha pode comecar em
+     * um bloco e terminar no seguinte.
+     * @param buffer os caracteres lidos
+     * @param inicio a posicao do primeiro caractere
+     * @param fim a posicao seguinte ao ultimo caractere
+     */
+    public void processar(char[] buffer, int inicio, int fim) throws Exception
+    {
+        for(int p = inicio; p < fim; p++)
+        {
+            char c = buffer[p];
+            if(c == '\n' || c == '\r')
+            {
+                // o \n de um \r\n ja terminou a linha
+                if(c == '\n' && bUltimoFoiRetorno)
+                {
+                    bUltimoFoiRetorno = false;
+                    continue;
+                }
+                bUltimoFoiRetorno = (c == '\r');
+                terminarLinha();
+            }
+            else
+            {
+                bUltimoFoiRetorno = false;
+                if(tamanhoLinha == linha.length)
+                {
+                    linha = Arrays.copyOf(linha, linha.length * 2);
+                }
+                linha[tamanhoLinha++] = c;
+            }
+        }
+    }
+
+
+    /**
+     * Indica o fim do arquivo, analisando a ultima linha caso ela nao
+     * termine com uma quebra de linha
+     */
+    public void finalizar() throws Exception
+    {
+        finalizarTrecho();
+        if(numeroInstancias == 0)
+        {
+            throw new Exception("Base de dados nao contem instancias.");
+        }
+    }
+
+
+    /**
+     * Indica o fim de um trecho do arquivo, analisando a ultima linha caso
+     * ela nao termine com uma quebra de linha. Um trecho pode nao conter
+     * instancias.
+     */
+    public void finalizarTrecho() throws Exception
+    {
+        if(tamanhoLinha > 0)
+        {
+            terminarLinha();
+        }
+    }
+
+
+    /**
+     * Analisa a linha acumulada e a descarta
+     */
+    protected void terminarLinha() throws Exception
+    {
+        numeroLinha++;
+        analisarLinha(linha, tamanhoLinha);
+        tamanhoLinha = 0;
+    }
+
+
+    /**
+     * Analisa uma linha, acrescentando seus valores ao vetor de dados
+     * @param caracteres os caracteres da linha, sem a quebra de linha
+     * @param tamanho o numero de caracteres da linha
+     */
+    protected void analisarLinha(char[] caracteres, int tamanho) throws Exception
+    {
+        int p = 0;
+        // pula o espaco inicial
+        while(p < tamanho && caracteres[p] <= ' ')
+        {
+            p++;
+        }
+        // pula linhas em branco e de comentario
+        if(p == tamanho || caracteres[p] == '#'
+                || (caracteres[p] == '/' && p + 1 < tamanho && caracteres[p + 1] == '/'))
+        {
+            return;
+        }
+        int iInicioInstancia = qtValores;
+        int iIndiceAtributo = 0;
+        while(p < tamanho)
+        {
+            int iInicioValor = p;
+            while(p < tamanho && caracteres[p] > ' ')
+            {
+                p++;
+            }
+            iIndiceAtributo++;
+            double dValor;
+            try
+            {
+                dValor = converterNumero(caracteres, iInicioValor, p);
+            }
+            catch(NumberFormatException exc)
+            {
+                throw new ErroAnaliseBase(ErroAnaliseBase.VALOR_INVALIDO, numeroLinha,
+                        iIndiceAtributo, numeroAtributos, textoLinha(caracteres, tamanho));
+            }
+            if(qtValores == valores.length)
+            {
+                crescer();
+            }
+            valores[qtValores++] = dValor;
+            // atualiza o maximo do atributo
+            if(numeroAtributos > 0 && iIndiceAtributo <= numeroAtributos
+                    && dValor > maximos[iIndiceAtributo - 1])
+            {
+                maximos[iIndiceAtributo - 1] = dValor;
+            }
+            while(p < tamanho && caracteres[p] <= ' ')
+            {
+                p++;
+            }
+        }
+        if(numeroAtributos < 0)
+        {
+            // a primeira instancia define o numero de atributos
+            numeroAtributos = iIndiceAtributo;
+            maximos = Arrays.copyOfRange(valores, iInicioInstancia, qtValores);
+            linhaPrimeiraInstancia = numeroLinha;
+        }
+        else if(numeroAtributos != iIndiceAtributo)
+        {
+            throw new ErroAnaliseBase(ErroAnaliseBase.NUMERO_ATRIBUTOS, numeroLinha,
+                    iIndiceAtributo, numeroAtributos, textoLinha(caracteres, tamanho));
+        }
+        numeroInstancias++;
+    }
+
+
+    /**
+     * Retorna o texto de uma linha, usado nas mensagens de erro
+     * @param caracteres os caracteres da linha
+     * @param tamanho o numero de caracteres da linha
+     */
+    protected String textoLinha(char[] caracteres, int tamanho)
+    {
+        return new String(caracteres, 0, tamanho);
+    }
+
+
+    /**
+     * Aumenta a capacidade do vetor de valores
+     */
+    protected void crescer() throws Exception
+    {
+        if(valores.length >= limiteValores)
+        {
+            throw new Exception("Base de dados excede o limite de "
+                    + limiteValores + " valores.");
+        }
+        long lNovaCapacidade = Math.min((long) valores.length * 2, limiteValores);
+        valores = Arrays.copyOf(valores, (int) lNovaCapacidade);
+    }
+
+
+    /**
+     * Converte um numero em notacao decimal sem criar Strings. Numeros com
+     * ate 15 digitos significativos e expoente decimal de ate 22 sao
+     * convertidos exatamente com uma unica operacao de ponto flutuante; os
+     * demais casos sao delegados para Double.parseDouble, de modo que o
+     * resultado e sempre o mesmo de Double.parseDouble.
+     * @param caracteres os caracteres da linha
+     * @param inicio a posicao do primeiro caractere do numero
+     * @param fim a posicao seguinte ao ultimo caractere do numero
+     * @throws NumberFormatException se o texto nao for um numero valido
+     */
+    public static double converterNumero(char[] caracteres, int inicio, int fim)
+    throws NumberFormatException
+    {
+        int p = inicio;
+        boolean bNegativo = false;
+        if(p < fim && (caracteres[p] == '-' || caracteres[p] == '+'))
+        {
+            bNegativo = (caracteres[p] == '-');
+            p++;
+        }
+        long lMantissa = 0;
+        int iExpoente = 0;
+        int iDigitos = 0;
+        // parte inteira
+        while(p < fim && caracteres[p] >= '0' && caracteres[p] <= '9')
+        {
+            lMantissa = lMantissa * 10 + (caracteres[p++] - '0');
+            iDigitos++;
+            if(lMantissa >= limiteMantissa)
+            {
+                return converterNumeroLento(caracteres, inicio, fim);
+            }
+        }
+        // parte fracionaria
+        if(p < fim && caracteres[p] == '.')
+        {
+            p++;
+            while(p < fim && caracteres[p] >= '0' && caracteres[p] <= '9')
+            {
+                lMantissa = lMantissa * 10 + (caracteres[p++] - '0');
+                iDigitos++;
+                iExpoente--;
+                if(lMantissa >= limiteMantissa)
+                {
+                    return converterNumeroLento(caracteres, inicio, fim);
+                }
+            }
+        }
+        if(iDigitos == 0)
+        {
+            return converterNumeroLento(caracteres, inicio, fim);
+        }
+        // expoente
+        if(p < fim && (caracteres[p] == 'e' || caracteres[p] == 'E'))
+        {
+            p++;
+            boolean bExpoenteNegativo = false;
+            if(p < fim && (caracteres[p] == '-' || caracteres[p] == '+'))
+            {
+                bExpoenteNegativo = (caracteres[p] == '-');
+                p++;
+            }
+            int iInicioExpoente = p;
+            int iValorExpoente = 0;
+            while(p < fim && caracteres[p] >= '0' && caracteres[p] <= '9'
+                    && iValorExpoente < 1000)
+            {
+                iValorExpoente = iValorExpoente * 10 + (caracteres[p++] - '0');
+            }
+            if(p == iInicioExpoente)
+            {
+                return converterNumeroLento(caracteres, inicio, fim);
+            }
+            iExpoente += bExpoenteNegativo ? -iValorExpoente : iValorExpoente;
+        }
+        if(p != fim || iExpoente < -22 || iExpoente > 22)
+        {
+            return converterNumeroLento(caracteres, inicio, fim);
+        }
+        double dValor = (double) lMantissa;
+        if(iExpoente > 0)
+        {
+            dValor *= potencias10[iExpoente];
+        }
+        else if(iExpoente < 0)
+        {
+            dValor /= potencias10[-iExpoente];
+        }
+        return bNegativo ? -dValor : dValor;
+    }
+
+
+    /**
+     * Converte um numero com Double.parseDouble
+     */
+    protected static double converterNumeroLento(char[] caracteres, int inicio, int fim)
+    throws NumberFormatException
+    {
+        return Double.parseDouble(new String(caracteres, inicio, fim - inicio));
+    }
+
+
+    /**
+     * Recupera os valores lidos, instancia a instancia, em um vetor com o
+     * tamanho exato
+     */
+    public double[] recuperarValores()
+    {
+        if(valores.length != qtValores)
+        {
+            valores = Arrays.copyOf(valores, qtValores);
+        }
+        return valores;
+    }
+
+
+    /**
+     * Recupera o maximo de cada atributo
+     */
+    public double[] recuperarMaximos()
+    {
+        return maximos;
+    }
+
+
+    /**
+     * Recupera o numero de instancias lidas
+     */
+    public int recuperarNumeroInstancias()
+    {
+        return numeroInstancias;
+    }
+
+
+    /**
+     * Recupera o numero de linhas analisadas, incluindo as anteriores ao
+     * primeiro caractere recebido
+     */
+    public int recuperarNumeroLinhas()
+    {
+        return numeroLinha;
+    }
+
+
+    /**
+     * Recupera a linha da primeira instancia, que definiu o numero de atributos
+     */
+    public int recuperarLinhaPrimeiraInstancia()
+    {
+        return linhaPrimeiraInstancia;
+    }
+
+
+    /**
+     * Recupera o numero de atributos, ou -1 se nenhuma instancia foi lida
+     */
+    public int recuperarNumeroAtributos()
+    {
+        return numeroAtributos;
+    }
+}
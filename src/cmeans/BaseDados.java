@@ -1,214 +1,474 @@
-/*
- * BaseDados.java
- *
- * Created on 20 de Outubro de 2007, 21:39
- */
-
-package cmeans;
-import java.util.*;
-import java.io.*;
-
-/**
- * Classe para manipular uma base de dados cujos atributos sao numericos
- * Nao suporta atributos nominais
- * @author Daniel Saraiva Leite
- */
-public class BaseDados 
-{
-    protected double[][] matDados;
-    protected int numeroAtributos;
-    protected int numeroInstancias;
-    
-    /** Construtor 
-     *  @param leitorBase um StreamReader já construido com o arquivo texto da base
-     */
-    public BaseDados(LineNumberReader leitorBase) throws Exception
-    {
-        // constroi a matriz de dados
-        constuirMatrizDados(leitorBase);
-        // normaliza os dados
-        normalizaBase();
-    }
-    
-    /**
-     * Recupera a matriz de dados m x n, com os valores assumidos pelos
-     * n atributos para as m instancias
-     */
-    public double[][] recuperarMatrizDados()
-    {
-        return matDados;
-    }
-    
-    /**
-     * Retorna um vetor que representa uma instancia dessa Base de Dados, com
-     * com dimensao de n atributos
-     * @param indiceInstancia o indice da instancia na matriz de dados
-     */
-    public double[] recuperarInstancia(int indiceInstancia)
-    {
-        return matDados[indiceInstancia];
-    }
-    
-    /**
-     * Recupera o numero de instancias desta base
-     */
-    public int recuperarNumeroInstancias()
-    {
-        return numeroInstancias;
-    }
-    
-    /**
-     * Recupera o numero de atributos desta bases
-     */
-    public int recuperarNumeroAtributos()
-    {
-        return numeroAtributos;
-    }
-    
-    /**
-     * Normalia a base de dados, divindo o valor assumido em cada
-     * atributo pelo max. desse atributo
-     */
-    protected void normalizaBase()
-    {
-        for(int j = 0; j < numeroAtributos; j++ )
-        {
-            double maximo = buscaValorMaximo(j);
-            for(int i = 0; i < numeroInstancias; i++)
-            {
-                matDados[i][j] /= maximo;
-            }
-        }
-    }   
-    
-    /**
-     * Busca o valor máximo assumido por um atributo na base de dados
-     * @param indiceAtributo o indice do atributo
-     */
-    protected double buscaValorMaximo(int indiceAtributo)
-    {
-        double dValorMaximo = Double.NEGATIVE_INFINITY;
-        if(numeroInstancias > 0)
-        {
-            dValorMaximo = matDados[0][indiceAtributo];
-        }
-        for(int i = 1; i < numeroInstancias; i++)
-        {
-            if(matDados[i][indiceAtributo] > dValorMaximo)
-            {
-                dValorMaximo = matDados[i][indiceAtributo];
-            }  
-        }
-        return dValorMaximo;
-    }    
-    
-    /**
-     * Constroi a matriz de dados que contem as instancias e os valores
-     * para os atributos, fazendo o devido parsing do arquivo texto da
-     * base e indicando eventuais erros
-     * @param leitorBase o leitor do stream do arquivo da base
-     */
-    protected void constuirMatrizDados(LineNumberReader leitorBase) throws Exception
-    {
-        // Le as linhas do arquivo
-        Vector<String> vetorLinhas = new Vector<String>();
-        Vector<Integer> vetorNumeroLinhas = new Vector<Integer>();
-        String linha;
-        while( (linha = leitorBase.readLine()) != null)
-        {
-            // pula linhas de comentario
-            if(!linha.trim().startsWith("#") && !linha.trim().startsWith("//")) 
-            {
-                vetorLinhas.add(linha);
-                vetorNumeroLinhas.add(leitorBase.getLineNumber());
-            }
-        } 
-        // constroi a primeira dimensao da matriz
-        matDados = new double[vetorLinhas.size()][];
-        numeroInstancias = vetorLinhas.size();
-        int iIndiceLinha = 0;
-        int iIndiceAtributo = 0;
-        try
-        {
-             Vector<Double> vetorValores = new Vector<Double>();
-             // realiza o carregamento da primeira linha
-             if(numeroInstancias == 0)
-             {
-                 throw new Exception("Base de dados nao contem instancias.");
-             }
-             StringTokenizer tokenizer = new StringTokenizer(vetorLinhas.get(iIndiceLinha));
-             while(tokenizer.hasMoreTokens())
-             {
-                 iIndiceAtributo++;
-                 vetorValores.add(Double.parseDouble(tokenizer.nextToken()));
-             }
-             // agora sabemos o numero de colunas da matriz
-             numeroAtributos = vetorValores.size();
-             // constroi-se a matriz
-             for(int i = 0; i < numeroInstancias; i++)
-             {
-                 matDados[i] = new double[numeroAtributos];
-             }
-             // adiciona os valores da primeira linha
-             for(int j = 0; j < numeroAtributos; j++)
-             {
-                 matDados[0][j] = vetorValores.get(j);
-             }
-             // adiciona os valores das proximas linhas
-             for(int i = 1; i < numeroInstancias; i++)
-             {
-                 iIndiceLinha = i;
-                 // tokeniza a linha
-                 vetorValores.clear();
-                 tokenizer = new StringTokenizer(vetorLinhas.get(iIndiceLinha));
-                 iIndiceAtributo = 0;
-                 while(tokenizer.hasMoreTokens())
-                 {
-                     iIndiceAtributo++;
-                     vetorValores.add(Double.parseDouble(tokenizer.nextToken()));
-                 }
-                 if(numeroAtributos != vetorValores.size())
-                 {
-                     throw new Exception("Numero invalido de atributos na linha " + 
-                            vetorNumeroLinhas.get(iIndiceLinha) + ". Deve ser " + numeroAtributos);
-                 }
-                 // adiciona os valores na matriz
-                 for(int j = 0; j < numeroAtributos; j++)
-                 {
-                     matDados[iIndiceLinha][j] = vetorValores.get(j);
-                 }
-             }
-        }
-        catch(NumberFormatException exc)
-        {
-            throw new Exception("Valor inválido para atributo numerico " +
-                    + iIndiceAtributo + " na linha " + 
-                    vetorNumeroLinhas.get(iIndiceLinha) + ":\n" + 
-                    vetorLinhas.get(iIndiceLinha));
-        }          
-    }
-    
-    /**
-     * Retorna uma string que representa esta base de dados
-     */
-    public String toString()
-    {
-        if(matDados == null)
-        {
-            return "Base de Dados nula";
-        }
-        else
-        {
-            StringBuffer buffer = new StringBuffer();
-            for(int i = 0; i < matDados.length; i++)
-            {
-                for(int j = 0; j < matDados[i].length; j++)
-                {
-                    buffer.append(matDados[i][j] + "\t");
-                }
-                buffer.append("\n");
-            }
-            return buffer.toString();
-        }                   
-    }
-}
+/*
+ * BaseDados.java
+ *
+ * Created on 20 de Outubro de 2007, 21:39
+ */
+
+package cmeans;
+import java.util.*;
+import java.io.*;
+
+/**
+ * Classe para manipular uma base de dados cujos atributos sao numericos
+ * Nao suporta atributos nominais
+ * @author Daniel Saraiva Leite
+ */
+public class BaseDados 
+{
+    protected double[] vetDados; // matriz de dados contigua, linha a linha
+    protected double[] vetDadosPorColuna; // copia coluna a coluna, criada sob demanda
+    protected double[] vetNormasQuadradas; // ||x||^2 de cada instancia, criado sob demanda
+    protected int numeroAtributos;
+    protected int numeroInstancias;
+    protected double[] vetMaximos; // maximo de cada atributo usado na normalizacao
+    protected double[] vetPesos; // peso de cada instancia, nulo quando todas pesam 1
+    
+    /** Construtor 
+     *  @param leitorBase um StreamReader já construido com o arquivo texto da base
+     */
+    public BaseDados(LineNumberReader leitorBase) throws Exception
+    {
+        // constroi a matriz de dados
+        constuirMatrizDados(leitorBase);
+        // normaliza os dados
+        normalizaBase();
+    }
+    
+    /** 
+     * Construtor que le o arquivo texto da base em paralelo, dividindo-o em
+     * trechos analisados ao mesmo tempo. O resultado e as mensagens de erro
+     * sao os mesmos do construtor serial.
+     * @param arquivoBase o arquivo texto da base
+     * @param paralelismo o numero de threads usadas na leitura
+     */
+    public BaseDados(File arquivoBase, int paralelismo) throws Exception
+    {
+        LeitorBaseParalelo leitor = new LeitorBaseParalelo(arquivoBase, paralelismo);
+        leitor.ler();
+        // os dados ja chegam normalizados
+        vetDados = leitor.recuperarDados();
+        vetMaximos = leitor.recuperarMaximos();
+        numeroInstancias = leitor.recuperarNumeroInstancias();
+        numeroAtributos = leitor.recuperarNumeroAtributos();
+    }
+    
+    /**
+     * Construtor para as subclasses que carregam a base de outras fontes
+     */
+    protected BaseDados()
+    {
+    }
+    
+    /**
+     * Construtor para dados ja normalizados, por exemplo os de uma base
+     * reduzida (ReducaoDuplicatas)
+     * @param dados os valores normalizados, instancia a instancia; o vetor
+     * passa a ser da base
+     * @param numeroInstancias o numero de instancias
+     * @param numeroAtributos o numero de atributos
+     * @param maximos os maximos da normalizacao de cada atributo
+     */
+    protected BaseDados(double[] dados, int numeroInstancias, int numeroAtributos,
+            double[] maximos)
+    {
+        this.vetDados = dados;
+        this.numeroInstancias = numeroInstancias;
+        this.numeroAtributos = numeroAtributos;
+        this.vetMaximos = maximos;
+    }
+    
+    /**
+     * Recupera a matriz de dados m x n, com os valores assumidos pelos
+     * n atributos para as m instancias. A matriz e uma copia montada a
+     * partir do armazenamento contiguo.
+     */
+    public double[][] recuperarMatrizDados()
+    {
+        double[][] matDados = new double[numeroInstancias][];
+        for(int i = 0; i < numeroInstancias; i++)
+        {
+            matDados[i] = recuperarInstancia(i);
+        }
+        return matDados;
+    }
+    
+    /**
+     * Retorna um vetor que representa uma instancia dessa Base de Dados, com
+     * com dimensao de n atributos. O vetor e uma copia; nos lacos criticos
+     * use recuperarDadosContiguos e recuperarDeslocamento, que nao alocam.
+     * @param indiceInstancia o indice da instancia na matriz de dados
+     */
+    public double[] recuperarInstancia(int indiceInstancia)
+    {
+        return copiarInstancia(indiceInstancia, new double[numeroAtributos]);
+    }
+    
+    /**
+     * Copia os valores de uma instancia para um vetor ja alocado
+     * @param indiceInstancia o indice da instancia na matriz de dados
+     * @param destino vetor com pelo menos n atributos posicoes
+     * @return o proprio vetor destino
+     */
+    public double[] copiarInstancia(int indiceInstancia, double[] destino)
+    {
+        System.arraycopy(vetDados, recuperarDeslocamento(indiceInstancia), 
+                destino, 0, numeroAtributos);
+        return destino;
+    }
+    
+    /**
+     * Recupera o vetor contiguo com todos os dados, armazenados linha a linha:
+     * o atributo j da instancia i fica na posicao i * n atributos + j
+     */
+    public double[] recuperarDadosContiguos()
+    {
+        return vetDados;
+    }
+    
+    /**
+     * Recupera a posicao do primeiro atributo de uma instancia no vetor
+     * contiguo de dados
+     * @param indiceInstancia o indice da instancia na matriz de dados
+     */
+    public int recuperarDeslocamento(int indiceInstancia)
+    {
+        return indiceInstancia * numeroAtributos;
+    }
+    
+    /**
+     * Recupera o valor assumido por um atributo em uma instancia
+     * @param indiceInstancia o indice da instancia
+     * @param indiceAtributo o indice do atributo
+     */
+    public double recuperarValor(int indiceInstancia, int indiceAtributo)
+    {
+        return vetDados[indiceInstancia * numeroAtributos + indiceAtributo];
+    }
+    
+    /**
+     * Recupera uma visao dos dados armazenados coluna a coluna: o atributo j
+     * da instancia i fica na posicao j * m instancias + i. A copia e criada
+     * na primeira chamada e mantida enquanto a base nao for alterada.
+     */
+    public double[] recuperarDadosPorColuna()
+    {
+        if(vetDadosPorColuna == null)
+        {
+            double[] vetColunas = new double[vetDados.length];
+            for(int i = 0; i < numeroInstancias; i++)
+            {
+                int iDeslocamento = i * numeroAtributos;
+                for(int j = 0; j < numeroAtributos; j++)
+                {
+                    vetColunas[j * numeroInstancias + i] = vetDados[iDeslocamento + j];
+                }
+            }
+            vetDadosPorColuna = vetColunas;
+        }
+        return vetDadosPorColuna;
+    }
+    
+    /**
+     * Recupera a norma quadratica ||x||^2 de cada instancia, usada no calculo
+     * das distancias pela expansao ||x||^2 - 2 x.c + ||c||^2. O vetor e
+     * calculado na primeira chamada e mantido enquanto a base nao for
+     * alterada.
+     */
+    public double[] recuperarNormasQuadradas()
+    {
+        if(vetNormasQuadradas == null)
+        {
+            double[] vetNormas = new double[numeroInstancias];
+            for(int i = 0; i < numeroInstancias; i++)
+            {
+                int iDeslocamento = i * numeroAtributos;
+                double dSoma = 0;
+                for(int j = 0; j < numeroAtributos; j++)
+                {
+                    dSoma += vetDados[iDeslocamento + j] * vetDados[iDeslocamento + j];
+                }
+                vetNormas[i] = dSoma;
+            }
+            vetNormasQuadradas = vetNormas;
+        }
+        return vetNormasQuadradas;
+    }
+    
+    /**
+     * Recupera o numero de instancias desta base
+     */
+    public int recuperarNumeroInstancias()
+    {
+        return numeroInstancias;
+    }
+    
+    /**
+     * Recupera o numero de atributos desta bases
+     */
+    public int recuperarNumeroAtributos()
+    {
+        return numeroAtributos;
+    }
+    
+    /**
+     * Recupera o peso de cada instancia, ou nulo se todas as instancias
+     * pesam 1. Uma instancia de peso w conta como w copias dela no
+     * C-Means (centroides, J_m e indices de validade).
+     */
+    public double[] recuperarPesos()
+    {
+        return vetPesos;
+    }
+    
+    /**
+     * Recupera o peso de uma instancia
+     * @param indiceInstancia o indice da instancia
+     */
+    public double recuperarPeso(int indiceInstancia)
+    {
+        return (vetPesos == null) ? 1 : vetPesos[indiceInstancia];
+    }
+    
+    /**
+     * Recupera a soma dos pesos das instancias, que e o numero de instancias
+     * quando a base nao tem pesos
+     */
+    public double recuperarPesoTotal()
+    {
+        if(vetPesos == null)
+        {
+            return numeroInstancias;
+        }
+        double dTotal = 0;
+        for(int i = 0; i < numeroInstancias; i++)
+        {
+            dTotal += vetPesos[i];
+        }
+        return dTotal;
+    }
+    
+    /**
+     * Define o peso de cada instancia
+     * @param pesos um peso finito e nao negativo por instancia, ou nulo para
+     * que todas pesem 1; o vetor passa a ser da base
+     */
+    public void definirPesos(double[] pesos)
+    {
+        if(pesos != null)
+        {
+            if(pesos.length != numeroInstancias)
+            {
+                throw new IllegalArgumentException("Esperados " + numeroInstancias 
+                        + " pesos; recebidos " + pesos.length);
+            }
+            for(int i = 0; i < pesos.length; i++)
+            {
+                if(!(pesos[i] >= 0) || Double.isInfinite(pesos[i]))
+                {
+                    throw new IllegalArgumentException("Peso invalido na instancia " 
+                            + (i + 1) + ": " + pesos[i]);
+                }
+            }
+        }
+        vetPesos = pesos;
+    }
+    
+    /**
+     * Recupera o valor maximo de cada atributo, pelo qual os valores
+     * originais foram divididos na normalizacao
+     */
+    public double[] recuperarMaximos()
+    {
+        return vetMaximos;
+    }
+    
+    /**
+     * Normalia a base de dados, divindo o valor assumido em cada
+     * atributo pelo max. desse atributo. Se os maximos ja foram calculados
+     * na leitura da base, eles sao reaproveitados.
+     */
+    protected void normalizaBase()
+    {
+        // os maximos ja sao conhecidos quando calculados durante a leitura
+        if(vetMaximos == null)
+        {
+            vetMaximos = new double[numeroAtributos];
+            for(int j = 0; j < numeroAtributos; j++ )
+            {
+                vetMaximos[j] = buscaValorMaximo(j);
+            }
+        }
+        for(int i = 0; i < numeroInstancias; i++)
+        {
+            int iDeslocamento = i * numeroAtributos;
+            for(int j = 0; j < numeroAtributos; j++ )
+            {
+                vetDados[iDeslocamento + j] /= vetMaximos[j];
+            }
+        }
+        vetDadosPorColuna = null;
+        vetNormasQuadradas = null;
+    }   
+    
+    /**
+     * Renormaliza a base por outros maximos, por exemplo os de todas as
+     * partes de uma base distribuida entre processos: os valores do
+     * atributo j sao multiplicados por maximo atual / novo maximo, de modo
+     * que a base fica igual a uma base lida e normalizada pelos novos maximos
+     * @param maximos os novos maximos, no valor original de cada atributo;
+     * o vetor e copiado
+     */
+    public void definirMaximos(double[] maximos)
+    {
+        if(maximos.length != numeroAtributos)
+        {
+            throw new IllegalArgumentException("Esperados " + numeroAtributos 
+                    + " maximos; recebidos " + maximos.length);
+        }
+        for(int j = 0; j < numeroAtributos; j++)
+        {
+            if(maximos[j] == vetMaximos[j])
+            {
+                continue;
+            }
+            double dFator = vetMaximos[j] / maximos[j];
+            for(int i = 0; i < numeroInstancias; i++)
+            {
+                vetDados[i * numeroAtributos + j] *= dFator;
+            }
+        }
+        vetMaximos = maximos.clone();
+        vetDadosPorColuna = null;
+        vetNormasQuadradas = null;
+    }
+    
+    /**
+     * Acrescenta instancias ao final da base, normalizando-as pelos maximos
+     * atuais. Se algum valor novo superar o maximo do seu atributo, o maximo
+     * e atualizado e as instancias anteriores desse atributo sao
+     * renormalizadas, de modo que a base continua igual a uma base lida com
+     * todas as instancias. Se a base tiver pesos, as novas instancias pesam 1.
+     * @param valores os valores originais das novas instancias, instancia a
+     * instancia (dim. quantidade x n atributos)
+     * @param quantidade o numero de instancias novas
+     * @return verdadeiro se algum maximo mudou
+     */
+    public boolean acrescentarInstancias(double[] valores, int quantidade)
+    {
+        if(valores.length < (long) quantidade * numeroAtributos)
+        {
+            throw new IllegalArgumentException("Esperados " + quantidade * numeroAtributos
+                    + " valores; recebidos " + valores.length);
+        }
+        // atualiza os maximos e renormaliza as colunas que mudaram
+        boolean bMaximosMudaram = false;
+        for(int j = 0; j < numeroAtributos; j++)
+        {
+            double dMaximo = vetMaximos[j];
+            for(int i = 0; i < quantidade; i++)
+            {
+                dMaximo = Math.max(dMaximo, valores[i * numeroAtributos + j]);
+            }
+            if(dMaximo != vetMaximos[j])
+            {
+                double dFator = vetMaximos[j] / dMaximo;
+                for(int i = 0; i < numeroInstancias; i++)
+                {
+                    vetDados[i * numeroAtributos + j] *= dFator;
+                }
+                vetMaximos[j] = dMaximo;
+                bMaximosMudaram = true;
+            }
+        }
+        // copia as novas instancias, ja normalizadas
+        int iInicio = numeroInstancias * numeroAtributos;
+        vetDados = Arrays.copyOf(vetDados, iInicio + quantidade * numeroAtributos);
+        for(int i = 0; i < quantidade; i++)
+        {
+            for(int j = 0; j < numeroAtributos; j++)
+            {
+                vetDados[iInicio + i * numeroAtributos + j] = 
+                        valores[i * numeroAtributos + j] / vetMaximos[j];
+            }
+        }
+        if(vetPesos != null)
+        {
+            vetPesos = Arrays.copyOf(vetPesos, numeroInstancias + quantidade);
+            Arrays.fill(vetPesos, numeroInstancias, numeroInstancias + quantidade, 1);
+        }
+        numeroInstancias += quantidade;
+        vetDadosPorColuna = null;
+        vetNormasQuadradas = null;
+        return bMaximosMudaram;
+    }
+    
+    /**
+     * Busca o valor máximo assumido por um atributo na base de dados
+     * @param indiceAtributo o indice do atributo
+     */
+    protected double buscaValorMaximo(int indiceAtributo)
+    {
+        double dValorMaximo = Double.NEGATIVE_INFINITY;
+        if(numeroInstancias > 0)
+        {
+            dValorMaximo = vetDados[indiceAtributo];
+        }
+        for(int i = 1; i < numeroInstancias; i++)
+        {
+            double dValor = vetDados[i * numeroAtributos + indiceAtributo];
+            if(dValor > dValorMaximo)
+            {
+                dValorMaximo = dValor;
+            }  
+        }
+        return dValorMaximo;
+    }    
+    
+    /**
+     * Constroi a matriz de dados que contem as instancias e os valores
+     * para os atributos, fazendo o devido parsing do arquivo texto da
+     * base e indicando eventuais erros. O arquivo e lido em uma unica
+     * passada, sem guardar as linhas, e os maximos de cada atributo sao
+     * calculados durante a leitura.
+     * @param leitorBase o leitor do stream do arquivo da base
+     */
+    protected void constuirMatrizDados(LineNumberReader leitorBase) throws Exception
+    {
+        AnalisadorBaseTexto analisador = new AnalisadorBaseTexto(leitorBase.getLineNumber());
+        char[] buffer = new char[1 << 16];
+        int iLidos;
+        while( (iLidos = leitorBase.read(buffer, 0, buffer.length)) != -1)
+        {
+            analisador.processar(buffer, 0, iLidos);
+        }
+        analisador.finalizar();
+        vetDados = analisador.recuperarValores();
+        vetMaximos = analisador.recuperarMaximos();
+        numeroInstancias = analisador.recuperarNumeroInstancias();
+        numeroAtributos = analisador.recuperarNumeroAtributos();
+    }
+    
+    /**
+     * Retorna uma string que representa esta base de dados
+     */
+    public String toString()
+    {
+        if(vetDados == null)
+        {
+            return "Base de Dados nula";
+        }
+        else
+        {
+            StringBuffer buffer = new StringBuffer();
+            for(int i = 0; i < numeroInstancias; i++)
+            {
+                for(int j = 0; j < numeroAtributos; j++)
+                {
+                    buffer.append(recuperarValor(i, j) + "\t");
+                }
+                buffer.append("\n");
+            }
+            return buffer.toString();
+        }                   
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * BaseDadosBinaria.java
+ *
+ * Created on 18 de Outubro de 2026, 11:05
+ */
+
+package cmeans;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Base de dados carregada de um arquivo binario mapeado em memoria com
+ * FileChannel.map. O arquivo guarda os dados ja normalizados, de modo que o
+ * carregamento nao faz parsing de texto: os valores sao copiados em bloco do
+ * cache de paginas do sistema operacional.
+ *
+ * Limitacao: o mapeamento so acelera a leitura. Os calculos usam o vetor
+ * contiguo de doubles da BaseDados, entao toda a base e copiada para o heap
+ * (8 bytes por valor, mesmo no formato float) e cada processo que abre o
+ * arquivo tem a sua propria copia. A base precisa caber no heap da JVM.
+ *
+ * Formato (little-endian):
+ *  - "CMBD" (4 bytes) e a versao do formato (int)
+ *  - tipo dos valores (int): TIPO_DOUBLE ou TIPO_FLOAT
+ *  - numero de instancias (int) e numero de atributos (int)
+ *  - 4 bytes de alinhamento
+ *  - maximo de cada atributo (double), usado na normalizacao
+ *  - valores normalizados, instancia a instancia
+ * @author Daniel Saraiva Leite
+ */
+public class BaseDadosBinaria extends BaseDados
+{
+    public static final int assinatura = 0x44424D43; // "CMBD" em little-endian
+    public static final int versao = 1;
+    public static final int TIPO_DOUBLE = 0;
+    public static final int TIPO_FLOAT = 1;
+    public static final int tamanhoCabecalho = 24; // sem os maximos
+    public static final String extensao = ".cmb";
+    // maior regiao mapeada de uma vez, multipla de 8 bytes
+    protected static final long tamanhoMaximoRegiao = (Integer.MAX_VALUE / 8) * 8L;
+
+
+    /**
+     * Construtor
+     * @param arquivo o arquivo binario gerado por converter
+     */
+    public BaseDadosBinaria(File arquivo) throws Exception
+    {
+        FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ);
+        try
+        {
+            carregar(canal, arquivo.getName());
+        }
+        finally
+        {
+            canal.close();
+        }
+    }
+
+
+    /**
+     * Le o cabecalho e copia os valores das regioes mapeadas para o vetor
+     * contiguo de dados
+     * @param canal o canal do arquivo binario
+     * @param nomeArquivo o nome do arquivo, usado nas mensagens de erro
+     */
+    protected void carregar(FileChannel canal, String nomeArquivo) throws Exception
+    {
+        if(canal.size() < tamanhoCabecalho)
+        {
+            throw new Exception("Arquivo " + nomeArquivo + " nao e uma base binaria.");
+        }
+        ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanhoCabecalho)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if(cabecalho.getInt() != assinatura || cabecalho.getInt() != versao)
+        {
+            throw new Exception("Arquivo " + nomeArquivo + " nao e uma base binaria "
+                    + "na versao " + versao + ".");
+        }
+        int iTipo = cabecalho.getInt();
+        numeroInstancias = cabecalho.getInt();
+        numeroAtributos = cabecalho.getInt();
+        int iBytesValor = (iTipo == TIPO_FLOAT) ? 4 : 8;
+        long lTamanhoMaximos = 8L * numeroAtributos;
+        long lTamanhoDados = (long) iBytesValor * numeroInstancias * numeroAtributos;
+        if(numeroInstancias <= 0 || numeroAtributos <= 0
+                || (iTipo != TIPO_DOUBLE && iTipo != TIPO_FLOAT))
+        {
+            throw new Exception("Cabecalho invalido no arquivo " + nomeArquivo + ".");
+        }
+        if((long) numeroInstancias * numeroAtributos > Integer.MAX_VALUE - 8)
+        {
+            throw new Exception("Base de dados excede o limite de "
+                    + (Integer.MAX_VALUE - 8) + " valores.");
+        }
+        if(canal.size() != tamanhoCabecalho + lTamanhoMaximos + lTamanhoDados)
+        {
+            throw new Exception("Tamanho invalido do arquivo " + nomeArquivo
+                    + ": esperado " + (tamanhoCabecalho + lTamanhoMaximos + lTamanhoDados)
+                    + " bytes.");
+        }
+        // le os maximos
+        vetMaximos = new double[numeroAtributos];
+        canal.map(FileChannel.MapMode.READ_ONLY, tamanhoCabecalho, lTamanhoMaximos)
+                .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(vetMaximos);
+        // copia os valores, uma regiao mapeada por vez
+        vetDados = new double[numeroInstancias * numeroAtributos];
+        long lPosicao = tamanhoCabecalho + lTamanhoMaximos;
+        int iIndice = 0;
+        while(iIndice < vetDados.length)
+        {
+            long lTamanhoRegiao = Math.min(tamanhoMaximoRegiao,
+                    (long) (vetDados.length - iIndice) * iBytesValor);
+            ByteBuffer regiao = canal.map(FileChannel.MapMode.READ_ONLY, lPosicao,
+                    lTamanhoRegiao).order(ByteOrder.LITTLE_ENDIAN);
+            int iQtValores = (int) (lTamanhoRegiao / iBytesValor);
+            if(iTipo == TIPO_DOUBLE)
+            {
+                regiao.asDoubleBuffer().get(vetDados, iIndice, iQtValores);
+            }
+            else
+            {
+                FloatBuffer valores = regiao.asFloatBuffer();
+                for(int v = 0; v < iQtValores; v++)
+                {
+                    vetDados[iIndice + v] = valores.get(v);
+                }
+            }
+            iIndice += iQtValores;
+            lPosicao += lTamanhoRegiao;
+        }
+    }
+
+
+    /**
+     * Converte uma base no formato texto para o formato binario. A base e
+     * normalizada na conversao e os maximos sao gravados no cabecalho.
+     * @param leitorBase o leitor do arquivo texto da base
+     * @param destino o arquivo binario a ser gerado
+     * @param tipo TIPO_DOUBLE ou TIPO_FLOAT (metade do espaco, com perda de precisao)
+     */
+    public static void converter(LineNumberReader leitorBase, File destino, int tipo)
+    throws Exception
+    {
+        gravar(new BaseDados(leitorBase), destino, tipo);
+    }
+
+
+    /**
+     * Grava uma base de dados ja normalizada no formato binario
+     * @param base a base de dados
+     * @param destino o arquivo binario a ser gerado
+     * @param tipo TIPO_DOUBLE ou TIPO_FLOAT
+     */
+    public static void gravar(BaseDados base, File destino, int tipo) throws IOException
+    {
+        int nAtributos = base.recuperarNumeroAtributos();
+        int iBytesValor = (tipo == TIPO_FLOAT) ? 4 : 8;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try
+        {
+            buffer.putInt(assinatura).putInt(versao).putInt(tipo);
+            buffer.putInt(base.recuperarNumeroInstancias()).putInt(nAtributos).putInt(0);
+            for(int j = 0; j < nAtributos; j++)
+            {
+                if(buffer.remaining() < 8)
+                {
+                    descarregar(canal, buffer);
+                }
+                buffer.putDouble(base.recuperarMaximos()[j]);
+            }
+            double[] dados = base.recuperarDadosContiguos();
+            int iQtValores = base.recuperarNumeroInstancias() * nAtributos;
+            for(int v = 0; v < iQtValores; v++)
+            {
+                if(buffer.remaining() < iBytesValor)
+                {
+                    descarregar(canal, buffer);
+                }
+                if(tipo == TIPO_FLOAT)
+                {
+                    buffer.putFloat((float) dados[v]);
+                }
+                else
+                {
+                    buffer.putDouble(dados[v]);
+                }
+            }
+            descarregar(canal, buffer);
+        }
+        finally
+        {
+            canal.close();
+        }
+    }
+
+
+    /**
+     * Escreve todo o conteudo do buffer no canal e o esvazia
+     */
+    protected static void descarregar(FileChannel canal, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining())
+        {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+
+    /**
+     * Converte uma base texto para o formato binario
+     * @param args os argumentos
+     *   1o. - caminho para o arquivo texto da base de dados
+     *   2o. - caminho do arquivo binario a ser gerado
+     *   3o. - (opcional) "float" para gravar os valores em precisao simples
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("float")))
+        {
+            System.out.println("Uso: BaseDadosBinaria [caminho texto] [caminho binario] [float]");
+            System.exit(1);
+        }
+        try
+        {
+            LineNumberReader leitor = new LineNumberReader(new FileReader(args[0]));
+            converter(leitor, new File(args[1]), (args.length == 3) ? TIPO_FLOAT : TIPO_DOUBLE);
+            leitor.close();
+        }
+        catch(Exception exc)
+        {
+            System.out.println("Erro na conversao da base " + args[0]);
+            System.out.println(exc.getLocalizedMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * BlocoInstancias.java
+ *
+ * Created on 18 de Outubro de 2026, 10:12
+ */
+
+package cmeans;
+import java.util.concurrent.*;
+
+/**
+ * Intervalo contiguo [inicio, fim) de instancias da base processado por uma
+ * unica tarefa do ForkJoinPool. Cada bloco guarda suas proprias somas
+ * parciais dos centroides, que sao reduzidas pelo AgrupamentoCMeans no final
+ * da fase. Os blocos sao reaproveitados de uma iteracao para outra.
+ * @author Daniel Saraiva Leite
+ */
+class BlocoInstancias extends RecursiveAction
+{
+    private static final long serialVersionUID = 1L;
+    public static final int FASE_PARTICOES = 0;  // calcula linhas da matriz de particoes
+    public static final int FASE_CENTROIDES = 1; // acumula numeradores e denominadores
+    public static final int FASE_SEM_PARTICAO = 2; // acumula sem guardar as particoes
+    public static final int FASE_ESPARSA = 3; // guarda as maiores pertinencias e acumula
+    public static final int blocosPorThread = 4; // granularidade do balanceamento
+    
+    protected transient AgrupamentoCMeans agrupamento; // os blocos nunca sao serializados
+    protected int inicio;
+    protected int fim;
+    protected double[] somaNumeradores;   // dim. c clusters x m atributos
+    protected double[] somaDenominadores; // dim. c clusters
+    protected double[] distancias;        // distancias da instancia atual aos c centroides
+    protected double[] pertinencias;      // pertinencias da instancia atual
+    protected double[] distanciasGrupo;   // distancias de um grupo do MotorDistancias
+    protected int[] indicesSelecionados;  // clusters guardados da instancia atual
+    protected double somaObjetivo;        // parcela do bloco em J_m, em FASE_PARTICOES
+    protected int fase;
+    protected double[][] matrizParticoes;
+    
+    
+    /**
+     * Construtor
+     * @param agrupamento o algoritmo que executa os calculos do bloco
+     * @param inicio a primeira instancia do bloco
+     * @param fim a instancia seguinte a ultima do bloco
+     * @param nClusters o numero de clusters
+     * @param nAtributos o numero de atributos da base
+     */
+    public BlocoInstancias(AgrupamentoCMeans agrupamento, int inicio, int fim,
+            int nClusters, int nAtributos)
+    {
+        this.agrupamento = agrupamento;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.somaNumeradores = new double[nClusters * nAtributos];
+        this.somaDenominadores = new double[nClusters];
+        this.distancias = new double[nClusters];
+        this.pertinencias = new double[nClusters];
+        this.distanciasGrupo = new double[MotorDistancias.instanciasPorGrupo * nClusters];
+        this.indicesSelecionados = new int[nClusters];
+    }
+    
+    
+    /**
+     * Divide o intervalo de instancias em blocos de tamanhos semelhantes.
+     * Com uma unica thread, ha um unico bloco com todas as instancias.
+     * @param nInstancias o numero de instancias da base
+     * @param paralelismo o numero de threads
+     */
+    public static BlocoInstancias[] dividir(AgrupamentoCMeans agrupamento,
+            int nInstancias, int nClusters, int nAtributos, int paralelismo)
+    {
+        int nBlocos = (paralelismo <= 1) ? 1 : paralelismo * blocosPorThread;
+        if(nBlocos > nInstancias)
+        {
+            nBlocos = Math.max(1, nInstancias);
+        }
+        BlocoInstancias[] blocos = new BlocoInstancias[nBlocos];
+        for(int b = 0; b < nBlocos; b++)
+        {
+            int iInicio = (int) ((long) nInstancias * b / nBlocos);
+            int iFim = (int) ((long) nInstancias * (b + 1) / nBlocos);
+            blocos[b] = new BlocoInstancias(agrupamento, iInicio, iFim, 
+                    nClusters, nAtributos);
+        }
+        return blocos;
+    }
+    
+    
+    /**
+     * Prepara o bloco para executar uma fase
+     * @param fase FASE_PARTICOES, FASE_CENTROIDES, FASE_SEM_PARTICAO ou FASE_ESPARSA
+     * @param matrizParticoes a matriz de particoes lida ou escrita pela fase,
+     * ou nulo em FASE_SEM_PARTICAO e FASE_ESPARSA
+     */
+    public void preparar(int fase, double[][] matrizParticoes)
+    {
+        reinitialize();
+        this.fase = fase;
+        this.matrizParticoes = matrizParticoes;
+    }
+    
+    
+    /**
+     * Executa a fase sobre as instancias do bloco
+     */
+    protected void compute()
+    {
+        if(fase == FASE_PARTICOES)
+        {
+            somaObjetivo = agrupamento.calcularParticoesIntervalo(inicio, fim, 
+                    matrizParticoes, distancias, distanciasGrupo);
+        }
+        else if(fase == FASE_CENTROIDES)
+        {
+            agrupamento.acumularCentroidesIntervalo(inicio, fim, matrizParticoes,
+                    somaNumeradores, somaDenominadores);
+        }
+        else if(fase == FASE_SEM_PARTICAO)
+        {
+            agrupamento.acumularCentroidesSemParticaoIntervalo(inicio, fim, 
+                    distancias, pertinencias, distanciasGrupo, somaNumeradores,
+                    somaDenominadores);
+        }
+        else
+        {
+            agrupamento.acumularCentroidesEsparsoIntervalo(inicio, fim, 
+                    distancias, pertinencias, indicesSelecionados, distanciasGrupo,
+                    somaNumeradores, somaDenominadores);
+        }
+    }
+    
+    
+    /**
+     * Tarefa raiz que dispara todos os blocos de uma fase no ForkJoinPool
+     */
+    static class Grupo extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        protected BlocoInstancias[] blocos;
+        
+        public Grupo(BlocoInstancias[] blocos)
+        {
+            this.blocos = blocos;
+        }
+        
+        protected void compute()
+        {
+            invokeAll(blocos);
+        }
+    }
+}
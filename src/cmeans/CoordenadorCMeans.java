@@ -0,0 +1,515 @@
+/*
+ * CoordenadorCMeans.java
+ *
+ * Created on 19 de Outubro de 2026, 20:40
+ */
+
+package cmeans;
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Coordena a execucao do C-Means sobre uma base dividida em partes, cada uma
+ * mantida por um processo trabalhador (TrabalhadorCMeans). A cada iteracao,
+ * o coordenador envia os centroides atuais a todos os trabalhadores; cada um
+ * calcula as pertinencias das suas instancias e devolve os numeradores e
+ * denominadores dos proximos centroides, sem dividi-los. Como as somas de
+ * partes disjuntas podem ser somadas entre si, o coordenador obtem os mesmos
+ * centroides de uma execucao sobre a base inteira (a menos da ordem das
+ * somas) e verifica a convergencia como em aplicarAlgoritmoSemParticao. As
+ * somas sao juntadas sempre na ordem dos indices dos trabalhadores, e nao na
+ * ordem de chegada, de modo que o resultado nao depende de qual trabalhador
+ * responde primeiro. Antes da primeira iteracao, os maximos das partes sao
+ * juntados e todas as partes sao normalizadas pelos maximos da base inteira.
+ * A comunicacao usa um soquete TCP por trabalhador, em que trafegam apenas
+ * os centroides e as somas: O(c x m atributos) por iteracao.
+ * @author Daniel Saraiva Leite
+ */
+public class CoordenadorCMeans
+{
+    public static final int assinatura = 0x434D4344; // "CMCD"
+    public static final int versao = 1;
+    // comandos enviados aos trabalhadores
+    public static final int PARTICAO_ALEATORIA = 0; // somas de uma particao aleatoria
+    public static final int ITERAR = 1;             // somas para os centroides enviados
+    public static final int CONCLUIR = 2;           // objetivo parcial e encerramento
+    protected int nTrabalhadores;
+    protected int nClusters;
+    protected int nAtributos;
+    protected double epsilon;
+    protected double m;
+    protected long semente;           // o trabalhador i usa semente + i
+    protected int maximoIteracoes;    // 0: sem limite
+    protected ModeloCMeans modeloInicial; // nulo: particao aleatoria
+    protected long numeroInstancias;
+    protected double[] maximos;       // maximos da base inteira
+    protected double[][] matrizCentroides;
+    protected int numeroIteracoes;
+    protected double objetivo = Double.NaN;
+    protected DataInputStream[] entradas;  // na ordem dos indices
+    protected DataOutputStream[] saidas;
+
+
+    /**
+     * Construtor
+     * @param nTrabalhadores o numero de trabalhadores esperados
+     * @param nClusters o numero de clusters
+     */
+    public CoordenadorCMeans(int nTrabalhadores, int nClusters)
+    {
+        this(nTrabalhadores, nClusters, AgrupamentoCMeans.epsilonPadrao,
+                AgrupamentoCMeans.mPadrao);
+    }
+
+
+    /**
+     * Construtor que especifica qual o epsilon e m a serem utilizados
+     * @param nTrabalhadores o numero de trabalhadores esperados
+     * @param nClusters o numero de clusters
+     * @param epsilon o criterio de parada
+     * @param m o expoente das pertinencias
+     */
+    public CoordenadorCMeans(int nTrabalhadores, int nClusters, double epsilon, double m)
+    {
+        if(nTrabalhadores < 1 || nClusters < 1)
+        {
+            throw new IllegalArgumentException("Numero de trabalhadores ou de clusters invalido");
+        }
+        this.nTrabalhadores = nTrabalhadores;
+        this.nClusters = nClusters;
+        this.epsilon = epsilon;
+        this.m = m;
+        this.semente = System.nanoTime();
+    }
+
+
+    /**
+     * Define a semente da particao aleatoria inicial; o trabalhador de
+     * indice i sorteia as linhas da sua parte com semente + i
+     */
+    public void definirSemente(long semente)
+    {
+        this.semente = semente;
+    }
+
+
+    /**
+     * Define o numero maximo de iteracoes
+     * @param maximoIteracoes o limite, ou 0 para iterar ate convergir
+     */
+    public void definirMaximoIteracoes(int maximoIteracoes)
+    {
+        this.maximoIteracoes = Math.max(0, maximoIteracoes);
+    }
+
+
+    /**
+     * Define um modelo cujos centroides sao os iniciais, no lugar da
+     * particao aleatoria. Os centroides sao renormalizados pelos maximos da
+     * base inteira, como em AgrupamentoCMeans.aplicarAlgoritmoModelo.
+     * @param modelo o modelo, ou nulo para voltar a particao aleatoria
+     */
+    public void definirModeloInicial(ModeloCMeans modelo)
+    {
+        if(modelo != null && modelo.recuperarNumeroClusters() != nClusters)
+        {
+            throw new IllegalArgumentException("O modelo tem "
+                    + modelo.recuperarNumeroClusters() + " clusters; esperados " + nClusters);
+        }
+        this.modeloInicial = modelo;
+    }
+
+
+    /**
+     * Aceita os trabalhadores no servidor e executa o algoritmo ate a
+     * convergencia. As conexoes sao fechadas no final, com ou sem erro.
+     * @param servidor o soquete em que os trabalhadores se conectam
+     * @return o numero de iteracoes executadas
+     */
+    public int aplicar(ServerSocket servidor) throws IOException
+    {
+        Socket[] soquetes = new Socket[nTrabalhadores];
+        try
+        {
+            aceitarTrabalhadores(servidor, soquetes);
+            enviarConfiguracao();
+            double[] somaNumeradores = new double[nClusters * nAtributos];
+            double[] somaDenominadores = new double[nClusters];
+            if(modeloInicial == null)
+            {
+                enviarComando(PARTICAO_ALEATORIA, null);
+                receberSomas(somaNumeradores, somaDenominadores);
+                matrizCentroides = AgrupamentoCMeans.dividirSomas(somaNumeradores,
+                        somaDenominadores, new double[nClusters][nAtributos]);
+            }
+            else
+            {
+                matrizCentroides = centroidesModelo(modeloInicial);
+            }
+            double[][] centroidesNovos = new double[nClusters][nAtributos];
+            boolean bConvergiu = false;
+            int iIteracao = 0;
+            do
+            {
+                iIteracao++;
+                enviarComando(ITERAR, matrizCentroides);
+                receberSomas(somaNumeradores, somaDenominadores);
+                AgrupamentoCMeans.dividirSomas(somaNumeradores, somaDenominadores,
+                        centroidesNovos);
+                bConvergiu = diferenca(matrizCentroides, centroidesNovos) <= epsilon;
+                // troca as matrizes de centroides
+                double[][] centroidesAnteriores = matrizCentroides;
+                matrizCentroides = centroidesNovos;
+                centroidesNovos = centroidesAnteriores;
+            }
+            while(!bConvergiu && (maximoIteracoes == 0 || iIteracao < maximoIteracoes));
+            numeroIteracoes = iIteracao;
+            // encerra os trabalhadores e soma os objetivos parciais
+            enviarComando(CONCLUIR, matrizCentroides);
+            double dObjetivo = 0;
+            for(int t = 0; t < nTrabalhadores; t++)
+            {
+                dObjetivo += entradas[t].readDouble();
+            }
+            objetivo = dObjetivo;
+            return iIteracao;
+        }
+        finally
+        {
+            for(Socket soquete : soquetes)
+            {
+                if(soquete != null)
+                {
+                    soquete.close();
+                }
+            }
+            entradas = null;
+            saidas = null;
+        }
+    }
+
+
+    /**
+     * Aceita as conexoes e le a apresentacao de cada trabalhador (indice,
+     * numero de instancias, numero de atributos e maximos da sua parte),
+     * guardando as conexoes na ordem dos indices
+     */
+    protected void aceitarTrabalhadores(ServerSocket servidor, Socket[] soquetes)
+    throws IOException
+    {
+        entradas = new DataInputStream[nTrabalhadores];
+        saidas = new DataOutputStream[nTrabalhadores];
+        numeroInstancias = 0;
+        maximos = null;
+        for(int a = 0; a < nTrabalhadores; a++)
+        {
+            Socket soquete = servidor.accept();
+            soquete.setTcpNoDelay(true);
+            DataInputStream entrada = new DataInputStream(
+                    new BufferedInputStream(soquete.getInputStream()));
+            if(entrada.readInt() != assinatura || entrada.readInt() != versao)
+            {
+                soquete.close();
+                throw new IOException("Conexao de um processo que nao e um TrabalhadorCMeans"
+                        + " desta versao");
+            }
+            int iIndice = entrada.readInt();
+            if(iIndice < 0 || iIndice >= nTrabalhadores || soquetes[iIndice] != null)
+            {
+                soquete.close();
+                throw new IOException("Indice de trabalhador invalido ou repetido: " + iIndice);
+            }
+            soquetes[iIndice] = soquete;
+            entradas[iIndice] = entrada;
+            saidas[iIndice] = new DataOutputStream(
+                    new BufferedOutputStream(soquete.getOutputStream()));
+            numeroInstancias += entrada.readInt();
+            int iAtributos = entrada.readInt();
+            if(maximos == null)
+            {
+                nAtributos = iAtributos;
+                maximos = new double[nAtributos];
+                Arrays.fill(maximos, Double.NEGATIVE_INFINITY);
+            }
+            else if(iAtributos != nAtributos)
+            {
+                throw new IOException("O trabalhador " + iIndice + " tem " + iAtributos
+                        + " atributos; esperados " + nAtributos);
+            }
+            for(int j = 0; j < nAtributos; j++)
+            {
+                maximos[j] = Math.max(maximos[j], entrada.readDouble());
+            }
+        }
+    }
+
+
+    /**
+     * Envia a cada trabalhador o numero de clusters, m, a sua semente e os
+     * maximos da base inteira
+     */
+    protected void enviarConfiguracao() throws IOException
+    {
+        for(int t = 0; t < nTrabalhadores; t++)
+        {
+            saidas[t].writeInt(nClusters);
+            saidas[t].writeDouble(m);
+            saidas[t].writeLong(semente + t);
+            for(int j = 0; j < nAtributos; j++)
+            {
+                saidas[t].writeDouble(maximos[j]);
+            }
+            saidas[t].flush();
+        }
+    }
+
+
+    /**
+     * Envia um comando, seguido dos centroides se nao forem nulos, a todos
+     * os trabalhadores
+     */
+    protected void enviarComando(int comando, double[][] centroides) throws IOException
+    {
+        for(int t = 0; t < nTrabalhadores; t++)
+        {
+            saidas[t].writeInt(comando);
+            if(centroides != null)
+            {
+                for(int i = 0; i < nClusters; i++)
+                {
+                    for(int j = 0; j < nAtributos; j++)
+                    {
+                        saidas[t].writeDouble(centroides[i][j]);
+                    }
+                }
+            }
+            saidas[t].flush();
+        }
+    }
+
+
+    /**
+     * Recebe e soma os denominadores e numeradores de todos os trabalhadores,
+     * na ordem dos indices
+     */
+    protected void receberSomas(double[] somaNumeradores, double[] somaDenominadores)
+    throws IOException
+    {
+        Arrays.fill(somaNumeradores, 0);
+        Arrays.fill(somaDenominadores, 0);
+        for(int t = 0; t < nTrabalhadores; t++)
+        {
+            DataInputStream entrada = entradas[t];
+            for(int i = 0; i < nClusters; i++)
+            {
+                somaDenominadores[i] += entrada.readDouble();
+            }
+            for(int j = 0; j < somaNumeradores.length; j++)
+            {
+                somaNumeradores[j] += entrada.readDouble();
+            }
+        }
+    }
+
+
+    /**
+     * Converte os centroides de um modelo para os maximos da base inteira
+     */
+    protected double[][] centroidesModelo(ModeloCMeans modelo)
+    {
+        if(modelo.recuperarNumeroAtributos() != nAtributos)
+        {
+            throw new IllegalArgumentException("O modelo tem "
+                    + modelo.recuperarNumeroAtributos() + " atributos; esperados " + nAtributos);
+        }
+        double[] maximosModelo = modelo.recuperarMaximos();
+        double[][] centroides = new double[nClusters][nAtributos];
+        for(int i = 0; i < nClusters; i++)
+        {
+            for(int j = 0; j < nAtributos; j++)
+            {
+                centroides[i][j] = modelo.recuperarMatrizCentroides()[i][j]
+                        * maximosModelo[j] / maximos[j];
+            }
+        }
+        return centroides;
+    }
+
+
+    /**
+     * Calcula a soma das diferencas entre os centroides de duas iteracoes
+     */
+    protected static double diferenca(double[][] centroidesAnteriores,
+            double[][] centroidesAtuais)
+    {
+        double dDiferenca = 0;
+        for(int i = 0; i < centroidesAnteriores.length; i++)
+        {
+            for(int j = 0; j < centroidesAnteriores[i].length; j++)
+            {
+                dDiferenca += Math.abs(centroidesAnteriores[i][j] - centroidesAtuais[i][j]);
+            }
+        }
+        return dDiferenca;
+    }
+
+
+    /**
+     * Retorna os centroides finais, normalizados pelos maximos da base inteira
+     */
+    public double[][] recuperarMatrizCentroides()
+    {
+        return matrizCentroides;
+    }
+
+
+    /**
+     * Retorna o numero de iteracoes da ultima execucao
+     */
+    public int recuperarNumeroIteracoes()
+    {
+        return numeroIteracoes;
+    }
+
+
+    /**
+     * Retorna a funcao objetivo J_m dos centroides finais, somada sobre as
+     * partes
+     */
+    public double recuperarObjetivo()
+    {
+        return objetivo;
+    }
+
+
+    /**
+     * Retorna o numero total de instancias das partes
+     */
+    public long recuperarNumeroInstancias()
+    {
+        return numeroInstancias;
+    }
+
+
+    /**
+     * Retorna os maximos da base inteira
+     */
+    public double[] recuperarMaximos()
+    {
+        return maximos;
+    }
+
+
+    /**
+     * Retorna o modelo do resultado, para pontuar novas instancias
+     */
+    public ModeloCMeans recuperarModelo()
+    {
+        return new ModeloCMeans(matrizCentroides, m, maximos);
+    }
+
+
+    /**
+     * Funcao de entrada do coordenador
+     * @param args os argumentos
+     *   1o. - porta em que os trabalhadores se conectam
+     *   2o. - numero de trabalhadores
+     *   3o. - numero de clusters
+     *   demais - opcoes no formato -nome valor
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 3 || args.length % 2 != 1)
+        {
+            imprimeUso();
+        }
+        Map<String, String> opcoes = new HashMap<String, String>();
+        for(int i = 3; i < args.length; i += 2)
+        {
+            if(!args[i].startsWith("-"))
+            {
+                imprimeUso();
+            }
+            opcoes.put(args[i], args[i + 1]);
+        }
+        try
+        {
+            CoordenadorCMeans coordenador = new CoordenadorCMeans(Integer.parseInt(args[1]),
+                    Integer.parseInt(args[2]),
+                    opcoes.containsKey("-epsilon") ? Double.parseDouble(opcoes.get("-epsilon"))
+                    : AgrupamentoCMeans.epsilonPadrao,
+                    opcoes.containsKey("-m") ? Double.parseDouble(opcoes.get("-m"))
+                    : AgrupamentoCMeans.mPadrao);
+            if(opcoes.containsKey("-semente"))
+            {
+                coordenador.definirSemente(Long.parseLong(opcoes.get("-semente")));
+            }
+            if(opcoes.containsKey("-maxiter"))
+            {
+                coordenador.definirMaximoIteracoes(Integer.parseInt(opcoes.get("-maxiter")));
+            }
+            if(opcoes.containsKey("-inicial"))
+            {
+                coordenador.definirModeloInicial(
+                        ModeloCMeans.carregar(new File(opcoes.get("-inicial"))));
+            }
+            ServerSocket servidor = new ServerSocket(Integer.parseInt(args[0]));
+            try
+            {
+                coordenador.aplicar(servidor);
+            }
+            finally
+            {
+                servidor.close();
+            }
+            System.out.println("Instancias: " + coordenador.recuperarNumeroInstancias());
+            System.out.println("Iteracoes: " + coordenador.recuperarNumeroIteracoes());
+            System.out.println("J_m: " + coordenador.recuperarObjetivo());
+            if(opcoes.containsKey("-modelo"))
+            {
+                coordenador.recuperarModelo().gravar(new File(opcoes.get("-modelo")));
+            }
+            double[][] centroides = coordenador.recuperarMatrizCentroides();
+            StringBuffer buffer = new StringBuffer();
+            for(int i = 0; i < centroides.length; i++)
+            {
+                for(int j = 0; j < centroides[i].length; j++)
+                {
+                    buffer.append(centroides[i][j] + "\t");
+                }
+                buffer.append("\n");
+            }
+            System.out.print(buffer);
+        }
+        catch(Exception exc)
+        {
+            System.out.println("Erro na coordenacao do metodo C-Means");
+            System.out.println(exc.getLocalizedMessage());
+            System.exit(1);
+        }
+    }
+
+
+    /*
+     * Imprime a forma de uso do coordenador
+     */
+    public static void imprimeUso()
+    {
+        System.out.println("Uso: CoordenadorCMeans [porta] [trabalhadores] [k] [opcoes]\n");
+        System.out.println("[porta] porta TCP em que os trabalhadores (cmeans.TrabalhadorCMeans)"
+           + " se conectam");
+        System.out.println("[trabalhadores] número de trabalhadores, cada um com uma parte da base");
+        System.out.println("[k] número de clusters a utilizar");
+        System.out.println("[opcoes]");
+        System.out.println("  -epsilon e  critério de parada (padrão "
+           + AgrupamentoCMeans.epsilonPadrao + ")");
+        System.out.println("  -m m        expoente das pertinências (padrão "
+           + AgrupamentoCMeans.mPadrao + ")");
+        System.out.println("  -semente s  semente da partição aleatória inicial");
+        System.out.println("  -maxiter n  número máximo de iterações");
+        System.out.println("  -inicial arquivo  parte dos centroides de um modelo gravado com -modelo");
+        System.out.println("  -modelo arquivo  grava o modelo (centroides, m e máximos)");
+        System.exit(1);
+    }
+}
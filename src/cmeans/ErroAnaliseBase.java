@@ -0,0 +1,80 @@
+/*
+ * ErroAnaliseBase.java
+ *
+ * Created on 18 de Outubro de 2026, 15:02
+ */
+
+package cmeans;
+
+/**
+ * Erro encontrado na analise do arquivo texto de uma base de dados. Guarda a
+ * linha do erro separadamente da mensagem, de modo que um erro encontrado em
+ * um trecho do arquivo possa ser deslocado para a linha correspondente no
+ * arquivo inteiro.
+ * @author Daniel Saraiva Leite
+ */
+public class ErroAnaliseBase extends Exception
+{
+    private static final long serialVersionUID = 1L;
+    public static final int VALOR_INVALIDO = 0;
+    public static final int NUMERO_ATRIBUTOS = 1;
+    protected int tipo;
+    protected int numeroLinha;
+    protected int indiceAtributo;  // atributo invalido, para VALOR_INVALIDO
+    protected int numeroAtributos; // numero esperado, para NUMERO_ATRIBUTOS
+    protected String textoLinha;
+
+
+    /**
+     * Construtor
+     * @param tipo VALOR_INVALIDO ou NUMERO_ATRIBUTOS
+     * @param numeroLinha o numero da linha com o erro
+     * @param indiceAtributo o indice, a partir de 1, do atributo invalido
+     * @param numeroAtributos o numero de atributos esperado
+     * @param textoLinha o texto da linha com o erro
+     */
+    public ErroAnaliseBase(int tipo, int numeroLinha, int indiceAtributo,
+            int numeroAtributos, String textoLinha)
+    {
+        this.tipo = tipo;
+        this.numeroLinha = numeroLinha;
+        this.indiceAtributo = indiceAtributo;
+        this.numeroAtributos = numeroAtributos;
+        this.textoLinha = textoLinha;
+    }
+
+
+    /**
+     * Retorna um erro igual a este, com a linha deslocada
+     * @param linhas o numero de linhas anteriores ao trecho analisado
+     */
+    public ErroAnaliseBase deslocar(int linhas)
+    {
+        return new ErroAnaliseBase(tipo, numeroLinha + linhas, indiceAtributo,
+                numeroAtributos, textoLinha);
+    }
+
+
+    /**
+     * Recupera o numero da linha com o erro
+     */
+    public int recuperarNumeroLinha()
+    {
+        return numeroLinha;
+    }
+
+
+    /**
+     * Retorna a mensagem do erro
+     */
+    public String getMessage()
+    {
+        if(tipo == VALOR_INVALIDO)
+        {
+            return "Valor inválido para atributo numerico " + indiceAtributo
+                    + " na linha " + numeroLinha + ":\n" + textoLinha;
+        }
+        return "Numero invalido de atributos na linha " + numeroLinha
+                + ". Deve ser " + numeroAtributos;
+    }
+}
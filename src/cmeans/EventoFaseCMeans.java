@@ -0,0 +1,76 @@
+/*
+ * EventoFaseCMeans.java
+ *
+ * Created on 19 de Outubro de 2026, 12:55
+ */
+
+package cmeans;
+import jdk.jfr.*;
+
+/**
+ * Evento do JDK Flight Recorder que cobre uma fase de uma iteracao do
+ * C-Means. Cada execucao cria um unico evento, reaproveitado em todas as
+ * fases, e so se o evento estiver ligado em alguma gravacao quando a
+ * execucao comeca; sem gravacao, nada e alocado. Para gravar:
+ * java -XX:StartFlightRecording:filename=cmeans.jfr -jar cmeans.jar ...
+ * @author Daniel Saraiva Leite
+ */
+@Name("cmeans.Fase")
+@Label("Fase do C-Means")
+@Category("C-Means")
+@Description("Calculo dos centroides ou da particao em uma iteracao")
+class EventoFaseCMeans extends Event
+{
+    public static final String CENTROIDES = "centroides";
+    public static final String PARTICOES = "particoes";
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Iteracao")
+    int iteracao;
+
+    @Label("Clusters")
+    int clusters;
+
+    @Label("Instancias")
+    int instancias;
+
+
+    /**
+     * Cria o evento reaproveitado nas fases de uma execucao
+     * @return o evento, ou nulo se o evento nao estiver ligado em nenhuma
+     * gravacao
+     */
+    public static EventoFaseCMeans criar()
+    {
+        return EventType.getEventType(EventoFaseCMeans.class).isEnabled()
+                ? new EventoFaseCMeans() : null;
+    }
+
+
+    /**
+     * Inicia o evento de uma fase
+     */
+    public void iniciar(String fase, int iteracao, int clusters, int instancias)
+    {
+        begin();
+        this.fase = fase;
+        this.iteracao = iteracao;
+        this.clusters = clusters;
+        this.instancias = instancias;
+    }
+
+
+    /**
+     * Encerra o evento e o grava, se o JFR estiver gravando
+     */
+    public void concluir()
+    {
+        end();
+        if(shouldCommit())
+        {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * IndicesValidade.java
+ *
+ * Created on 19 de Outubro de 2026, 11:05
+ */
+
+package cmeans;
+
+/**
+ * Indices de validade de um agrupamento, usados para comparar resultados
+ * com numeros de clusters diferentes:
+ * coeficiente de particao PC = soma u^2 / n, entre 1/c e 1, maior e melhor;
+ * entropia de particao PE = - soma u log u / n, entre 0 e log c, menor e
+ * melhor; e Xie-Beni XB = J_m / (n x menor distancia quadratica entre dois
+ * centroides), menor e melhor. PC e PE tendem a favorecer poucos clusters,
+ * por isso a ordenacao usa o XB.
+ * @author Daniel Saraiva Leite
+ */
+public class IndicesValidade implements Comparable<IndicesValidade>
+{
+    protected int nClusters;
+    protected int iteracoes;
+    protected double objetivo;
+    protected double coeficienteParticao;
+    protected double entropiaParticao;
+    protected double xieBeni;
+
+
+    /**
+     * Construtor
+     * @param nClusters o numero de clusters
+     * @param iteracoes o numero de iteracoes do agrupamento
+     * @param objetivo a funcao objetivo J_m
+     * @param coeficienteParticao o coeficiente de particao
+     * @param entropiaParticao a entropia de particao
+     * @param xieBeni o indice de Xie-Beni
+     */
+    public IndicesValidade(int nClusters, int iteracoes, double objetivo,
+            double coeficienteParticao, double entropiaParticao, double xieBeni)
+    {
+        this.nClusters = nClusters;
+        this.iteracoes = iteracoes;
+        this.objetivo = objetivo;
+        this.coeficienteParticao = coeficienteParticao;
+        this.entropiaParticao = entropiaParticao;
+        this.xieBeni = xieBeni;
+    }
+
+
+    /**
+     * Ordena pelo Xie-Beni crescente e, no empate, pelo menor numero de
+     * clusters
+     */
+    public int compareTo(IndicesValidade outro)
+    {
+        int iComparacao = Double.compare(xieBeni, outro.xieBeni);
+        return (iComparacao != 0) ? iComparacao : Integer.compare(nClusters, outro.nClusters);
+    }
+
+
+    /**
+     * Retorna o numero de clusters
+     */
+    public int recuperarNumeroClusters()
+    {
+        return nClusters;
+    }
+
+
+    /**
+     * Retorna o numero de iteracoes do agrupamento
+     */
+    public int recuperarIteracoes()
+    {
+        return iteracoes;
+    }
+
+
+    /**
+     * Retorna a funcao objetivo J_m
+     */
+    public double recuperarObjetivo()
+    {
+        return objetivo;
+    }
+
+
+    /**
+     * Retorna o coeficiente de particao PC
+     */
+    public double recuperarCoeficienteParticao()
+    {
+        return coeficienteParticao;
+    }
+
+
+    /**
+     * Retorna a entropia de particao PE
+     */
+    public double recuperarEntropiaParticao()
+    {
+        return entropiaParticao;
+    }
+
+
+    /**
+     * Retorna o indice de Xie-Beni XB
+     */
+    public double recuperarXieBeni()
+    {
+        return xieBeni;
+    }
+
+
+    public String toString()
+    {
+        return String.format("c = %d: XB = %.6g, PC = %.6f, PE = %.6f, J = %.6f, %d iteracoes",
+                nClusters, xieBeni, coeficienteParticao, entropiaParticao, objetivo, iteracoes);
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * LeitorBaseParalelo.java
+ *
+ * Created on 18 de Outubro de 2026, 15:20
+ */
+
+package cmeans;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Leitura paralela do arquivo texto de uma base de dados. O arquivo e
+ * dividido em trechos de bytes que comecam sempre no inicio de uma linha, e
+ * cada trecho e analisado por um AnalisadorBaseTexto proprio em um pool de
+ * threads. No final, os numeros de atributos, os maximos e os erros dos
+ * trechos sao combinados na ordem do arquivo, de modo que o resultado e os
+ * erros (inclusive o numero da linha) sao os mesmos da leitura serial.
+ * Os bytes sao analisados como caracteres ISO-8859-1, o que e suficiente
+ * para os numeros e as quebras de linha; o texto das linhas citadas nos
+ * erros e decodificado em UTF-8, como na leitura serial. O vetor de valores
+ * de cada trecho e dimensionado pela densidade de valores do seu primeiro
+ * bloco e cresce se a estimativa for curta.
+ * @author Daniel Saraiva Leite
+ */
+public class LeitorBaseParalelo
+{
+    public static final int tamanhoMinimoTrecho = 1 << 20; // bytes
+    protected static final int tamanhoBuffer = 1 << 16;
+    protected File arquivo;
+    protected int paralelismo;
+    protected double[] vetDados;
+    protected double[] vetMaximos;
+    protected int numeroInstancias;
+    protected int numeroAtributos;
+
+
+    /**
+     * Construtor
+     * @param arquivo o arquivo texto da base
+     * @param paralelismo o numero de threads usadas na leitura
+     */
+    public LeitorBaseParalelo(File arquivo, int paralelismo)
+    {
+        this.arquivo = arquivo;
+        this.paralelismo = (paralelismo < 1) ? 1 : paralelismo;
+    }
+
+
+    /**
+     * Le e analisa o arquivo, deixando os dados ja normalizados
+     */
+    public void ler() throws Exception
+    {
+        FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ);
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo);
+        try
+        {
+            long[] limites = dividir(canal);
+            int nTrechos = limites.length - 1;
+            // analisa os trechos
+            List<Future<TrechoAnalisado>> resultados =
+                    new ArrayList<Future<TrechoAnalisado>>();
+            for(int t = 0; t < nTrechos; t++)
+            {
+                resultados.add(executor.submit(
+                        new TarefaTrecho(canal, limites[t], limites[t + 1])));
+            }
+            TrechoAnalisado[] trechos = new TrechoAnalisado[nTrechos];
+            for(int t = 0; t < nTrechos; t++)
+            {
+                try
+                {
+                    trechos[t] = resultados.get(t).get();
+                }
+                catch(ExecutionException exc)
+                {
+                    if(exc.getCause() instanceof Exception)
+                    {
+                        throw (Exception) exc.getCause();
+                    }
+                    throw exc;
+                }
+            }
+            combinar(trechos, executor);
+        }
+        finally
+        {
+            executor.shutdownNow();
+            canal.close();
+        }
+    }
+
+
+    /**
+     * Divide o arquivo em trechos, cada um comecando logo apos um \n
+     * @return os limites dos trechos: o trecho t vai de limites[t] a limites[t + 1]
+     */
+    protected long[] dividir(FileChannel canal) throws IOException
+    {
+        long lTamanho = canal.size();
+        int nTrechos = (int) Math.max(1, Math.min((long) paralelismo * 4,
+                lTamanho / tamanhoMinimoTrecho));
+        long[] limites = new long[nTrechos + 1];
+        limites[nTrechos] = lTamanho;
+        for(int t = 1; t < nTrechos; t++)
+        {
+            long lInicio = Math.max(limites[t - 1], lTamanho * t / nTrechos);
+            limites[t] = alinhar(canal, lInicio, lTamanho);
+        }
+        return limites;
+    }
+
+
+    /**
+     * Busca o inicio da primeira linha a partir de uma posicao
+     * @return a posicao seguinte ao primeiro \n em [posicao - 1, tamanho),
+     * ou o tamanho do arquivo se nao houver
+     */
+    protected long alinhar(FileChannel canal, long posicao, long tamanho) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long lPosicao = Math.max(0, posicao - 1);
+        while(lPosicao < tamanho)
+        {
+            buffer.clear();
+            int iLidos = canal.read(buffer, lPosicao);
+            if(iLidos <= 0)
+            {
+                break;
+            }
+            for(int i = 0; i < iLidos; i++)
+            {
+                if(buffer.get(i) == '\n')
+                {
+                    return lPosicao + i + 1;
+                }
+            }
+            lPosicao += iLidos;
+        }
+        return tamanho;
+    }
+
+
+    /**
+     * Combina os resultados dos trechos na ordem do arquivo: verifica os
+     * erros e o numero de atributos, calcula os maximos globais e copia os
+     * valores normalizados de cada trecho para o vetor contiguo final
+     */
+    protected void combinar(TrechoAnalisado[] trechos, ExecutorService executor)
+    throws Exception
+    {
+        int iLinhasAnteriores = 0;
+        long lQtValores = 0;
+        int[] deslocamentos = new int[trechos.length];
+        numeroAtributos = -1;
+        for(int t = 0; t < trechos.length; t++)
+        {
+            TrechoAnalisado trecho = trechos[t];
+            int iAtributosTrecho = trecho.recuperarNumeroAtributos();
+            // um trecho com numero de atributos diferente falha na sua
+            // primeira instancia, a menos que ja tenha falhado antes dela
+            if(numeroAtributos > 0 && iAtributosTrecho > 0 && iAtributosTrecho != numeroAtributos
+                    && (trecho.erro == null
+                    || trecho.erro.recuperarNumeroLinha() >= trecho.recuperarLinhaPrimeiraInstancia()))
+            {
+                throw new ErroAnaliseBase(ErroAnaliseBase.NUMERO_ATRIBUTOS,
+                        iLinhasAnteriores + trecho.recuperarLinhaPrimeiraInstancia(),
+                        iAtributosTrecho, numeroAtributos, trecho.textoPrimeiraInstancia);
+            }
+            if(trecho.erro != null)
+            {
+                throw trecho.erro.deslocar(iLinhasAnteriores);
+            }
+            if(numeroAtributos < 0 && iAtributosTrecho > 0)
+            {
+                numeroAtributos = iAtributosTrecho;
+                vetMaximos = trecho.recuperarMaximos().clone();
+            }
+            else if(iAtributosTrecho > 0)
+            {
+                double[] maximosTrecho = trecho.recuperarMaximos();
+                for(int j = 0; j < numeroAtributos; j++)
+                {
+                    if(maximosTrecho[j] > vetMaximos[j])
+                    {
+                        vetMaximos[j] = maximosTrecho[j];
+                    }
+                }
+            }
+            deslocamentos[t] = (int) Math.min(lQtValores, Integer.MAX_VALUE);
+            lQtValores += trecho.qtValores;
+            numeroInstancias += trecho.recuperarNumeroInstancias();
+            iLinhasAnteriores += trecho.recuperarNumeroLinhas();
+        }
+        if(numeroInstancias == 0)
+        {
+            throw new Exception("Base de dados nao contem instancias.");
+        }
+        if(lQtValores > Integer.MAX_VALUE - 8)
+        {
+            throw new Exception("Base de dados excede o limite de "
+                    + (Integer.MAX_VALUE - 8) + " valores.");
+        }
+        // copia e normaliza os trechos em paralelo
+        vetDados = new double[(int) lQtValores];
+        List<Callable<Object>> copias = new ArrayList<Callable<Object>>();
+        for(int t = 0; t < trechos.length; t++)
+        {
+            final TrechoAnalisado trecho = trechos[t];
+            final int iDestino = deslocamentos[t];
+            copias.add(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    double[] valores = trecho.valores;
+                    for(int i = 0; i < trecho.numeroInstancias; i++)
+                    {
+                        int iDeslocamento = i * numeroAtributos;
+                        for(int j = 0; j < numeroAtributos; j++)
+                        {
+                            vetDados[iDestino + iDeslocamento + j] =
+                                    valores[iDeslocamento + j] / vetMaximos[j];
+                        }
+                    }
+                    trecho.valores = null;
+                    return null;
+                }
+            });
+        }
+        executor.invokeAll(copias);
+    }
+
+
+    /**
+     * Recupera os dados lidos, ja normalizados, instancia a instancia
+     */
+    public double[] recuperarDados()
+    {
+        return vetDados;
+    }
+
+
+    /**
+     * Recupera o maximo de cada atributo
+     */
+    public double[] recuperarMaximos()
+    {
+        return vetMaximos;
+    }
+
+
+    /**
+     * Recupera o numero de instancias lidas
+     */
+    public int recuperarNumeroInstancias()
+    {
+        return numeroInstancias;
+    }
+
+
+    /**
+     * Recupera o numero de atributos
+     */
+    public int recuperarNumeroAtributos()
+    {
+        return numeroAtributos;
+    }
+
+
+    /**
+     * Analise de um trecho do arquivo. Um erro no trecho interrompe sua
+     * analise e fica guardado no resultado, com a linha relativa ao trecho.
+     */
+    static class TarefaTrecho implements Callable<TrechoAnalisado>
+    {
+        protected FileChannel canal;
+        protected long inicio;
+        protected long fim;
+
+        public TarefaTrecho(FileChannel canal, long inicio, long fim)
+        {
+            this.canal = canal;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        public TrechoAnalisado call() throws Exception
+        {
+            TrechoAnalisado analisador = new TrechoAnalisado();
+            ByteBuffer bytes = ByteBuffer.allocate(tamanhoBuffer);
+            char[] caracteres = new char[tamanhoBuffer];
+            long lPosicao = inicio;
+            boolean bEstimado = false;
+            try
+            {
+                while(lPosicao < fim)
+                {
+                    bytes.clear();
+                    bytes.limit((int) Math.min(tamanhoBuffer, fim - lPosicao));
+                    int iLidos = canal.read(bytes, lPosicao);
+                    if(iLidos <= 0)
+                    {
+                        break;
+                    }
+                    byte[] vetor = bytes.array();
+                    for(int i = 0; i < iLidos; i++)
+                    {
+                        caracteres[i] = (char) (vetor[i] & 0xFF);
+                    }
+                    analisador.processar(caracteres, 0, iLidos);
+                    lPosicao += iLidos;
+                    if(!bEstimado && analisador.qtValores > 0)
+                    {
+                        // estima os valores do trecho pelos do primeiro bloco, com folga de 1/16
+                        long lEstimativa = analisador.qtValores * (fim - inicio)
+                                / (lPosicao - inicio);
+                        analisador.reservar(lEstimativa + lEstimativa / 16);
+                        bEstimado = true;
+                    }
+                }
+                analisador.finalizarTrecho();
+            }
+            catch(ErroAnaliseBase exc)
+            {
+                analisador.erro = exc;
+            }
+            return analisador;
+        }
+    }
+
+
+    /**
+     * Analisador de um trecho, que guarda tambem o erro encontrado e o
+     * texto da primeira instancia
+     */
+    static class TrechoAnalisado extends AnalisadorBaseTexto
+    {
+        protected ErroAnaliseBase erro;
+        protected String textoPrimeiraInstancia;
+
+        public TrechoAnalisado()
+        {
+            super(0);
+        }
+
+        protected void analisarLinha(char[] caracteres, int tamanho) throws Exception
+        {
+            super.analisarLinha(caracteres, tamanho);
+            if(textoPrimeiraInstancia == null && numeroAtributos >= 0)
+            {
+                textoPrimeiraInstancia = textoLinha(caracteres, tamanho);
+            }
+        }
+
+        protected String textoLinha(char[] caracteres, int tamanho)
+        {
+            // cada caractere guarda um byte do arquivo
+            byte[] bytesLinha = new byte[tamanho];
+            for(int i = 0; i < tamanho; i++)
+            {
+                bytesLinha[i] = (byte) caracteres[i];
+            }
+            return new String(bytesLinha, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,108 +1,522 @@
-/*
- * Main.java
- *
- * Created on 20 de Outubro de 2007, 20:50
- */
-
-package cmeans;
-import java.util.*;
-import java.io.*;
-
-/**
- * Esta aplicação implementa o método C-Means de agrupamento fuzzy
- * As referencias utilizadas na implementação sao:
- *  - http://home.dei.polimi.it/matteucc/Clustering/tutorial_html/cmeans.html
- * Está é a Classe principal, a partir da qual o programa é iniciado
- * e os argumentos de linha de comando são passados.
- * @author Daniel Saraiva Leite
- */
-public class Main 
-{
-    
-    /** 
-     * Construtor da classe principal 
-     */
-    public Main(LineNumberReader leitorBase, int numeroClusters) 
-    {
-        try
-        {
-            // constroi o objeto que encapsula a base
-            BaseDados bd = new BaseDados(leitorBase); 
-            // imprime a base
-            //System.out.println("Base: ");
-            //System.out.print(bd);          
-            // aplica o metodo C-Means
-            AgrupamentoCMeans cmeans = new AgrupamentoCMeans(bd, numeroClusters);
-            cmeans.aplicarAlgoritmo();
-            // imprime o resultado   
-            System.out.print(cmeans);
-        }
-        catch(Exception exc)
-        {
-            System.out.println("Erro na execução do método C-Means");
-            System.out.println(exc.getLocalizedMessage());
-            exc.printStackTrace();
-            System.exit(1);
-        }
-    }
-    
-    
-    /**
-     * Função de entrada da aplicação
-     * @param args os argumentos
-     *   1o. - caminho para o arquivo texto da base de dados
-     *   2o. - numero de clusters a utilizar
-     */
-    public static void main(String[] args) 
-    {
-        if(args.length != 2)
-        {
-            imprimeUso();
-        }
-        // Tenta carregar o arquivo e interpretar o numero de clusters
-        try
-        {
-            // constroi o leitor do arquivo da base
-            LineNumberReader leitor = new LineNumberReader(new FileReader(args[0]));
-            // le o numero de clusters
-            int nClusters = Integer.parseInt(args[1]);            
-            Main main = new Main(leitor, nClusters);
-        }
-        catch(IOException exc)
-        {
-            System.out.printf("Não foi possivel abrir o arquivo %s", args[0]);
-            System.out.println();
-            imprimeUso();
-        }
-        catch(NumberFormatException exc)
-        {
-            System.out.printf("%s é um número inválidos de clusters.", args[1]);
-            System.out.println();
-            imprimeUso();
-        }
-        catch(Exception exc)
-        {
-            System.out.println(exc.getLocalizedMessage());
-            System.out.println();
-            imprimeUso();
-        }
-    }
-    
-    
-    /*
-     * Imprime a forma de uso do programa caso o usuário
-     * entre com parâmetros inválidos ou arquivo inexistente
-     */
-    public static void imprimeUso()
-    {
-        System.out.println("Parametros invalidos ou arquivo inexistente.\n");  
-        System.out.println("Uso: CMeans [caminho] [k]\n");
-        
-        System.out.println("[caminho] localização para o arquivo texto que " 
-           + "contém a base de dados" +
-           ", com os atributos separados com espaços e uma instância por linha"); 
-        System.out.println("[k] número de clusters a utilizar"); 
-        System.exit(1);
-    }
-    
-}
+/*
+ * Main.java
+ *
+ * Created on 20 de Outubro de 2007, 20:50
+ */
+
+package cmeans;
+import java.util.*;
+import java.io.*;
+
+/**
+ * Esta aplicação implementa o método C-Means de agrupamento fuzzy
+ * As referencias utilizadas na implementação sao:
+ *  - http://home.dei.polimi.it/matteucc/Clustering/tutorial_html/cmeans.html
+ * Está é a Classe principal, a partir da qual o programa é iniciado
+ * e os argumentos de linha de comando são passados.
+ * @author Daniel Saraiva Leite
+ */
+public class Main 
+{
+    
+    /** 
+     * Construtor da classe principal 
+     */
+    public Main(LineNumberReader leitorBase, int numeroClusters) 
+    {
+        this(leitorBase, numeroClusters, new HashMap<String, String>());
+    }
+    
+    
+    /** 
+     * Construtor da classe principal com as opcoes de linha de comando
+     * @param opcoes mapa de cada opcao (por exemplo, "-threads") para seu valor
+     */
+    public Main(LineNumberReader leitorBase, int numeroClusters, 
+            Map<String, String> opcoes) 
+    {
+        try
+        {
+            // constroi o objeto que encapsula a base
+            agrupar(new BaseDados(leitorBase), numeroClusters, opcoes);
+        }
+        catch(Exception exc)
+        {
+            imprimeErro(exc);
+        }
+    }
+    
+    
+    /** 
+     * Construtor da classe principal a partir do arquivo da base, que pode
+     * estar no formato texto ou no formato binario (extensao .cmb)
+     * @param opcoes mapa de cada opcao (por exemplo, "-threads") para seu valor
+     */
+    public Main(File arquivoBase, int numeroClusters, Map<String, String> opcoes) 
+    {
+        try
+        {
+            agrupar(carregarBase(arquivoBase, opcoes), numeroClusters, opcoes);
+        }
+        catch(Exception exc)
+        {
+            imprimeErro(exc);
+        }
+    }
+    
+    
+    /**
+     * Carrega a base de dados no formato indicado pela extensao do arquivo.
+     * Com mais de uma thread, o arquivo texto e lido em paralelo.
+     * @param arquivoBase o arquivo texto ou binario da base
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected BaseDados carregarBase(File arquivoBase, Map<String, String> opcoes) 
+    throws Exception
+    {
+        if(arquivoBase.getName().endsWith(BaseDadosBinaria.extensao))
+        {
+            return new BaseDadosBinaria(arquivoBase);
+        }
+        if(opcoes.containsKey("-threads") && Integer.parseInt(opcoes.get("-threads")) > 1)
+        {
+            return new BaseDados(arquivoBase, Integer.parseInt(opcoes.get("-threads")));
+        }
+        LineNumberReader leitor = new LineNumberReader(new FileReader(arquivoBase));
+        try
+        {
+            return new BaseDados(leitor);
+        }
+        finally
+        {
+            leitor.close();
+        }
+    }
+    
+    
+    /**
+     * Aplica o metodo C-Means sobre a base e imprime o resultado
+     * @param bd a base de dados
+     * @param numeroClusters o numero de clusters
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected void agrupar(BaseDados bd, int numeroClusters, 
+            Map<String, String> opcoes) throws Exception
+    {
+        // imprime a base
+        //System.out.println("Base: ");
+        //System.out.print(bd);          
+        // junta as instancias repetidas em representantes com peso
+        ReducaoDuplicatas reducao = null;
+        if(opcoes.containsKey("-duplicatas"))
+        {
+            reducao = new ReducaoDuplicatas(bd, Double.parseDouble(opcoes.get("-duplicatas")));
+            int iInstancias = bd.recuperarNumeroInstancias();
+            bd = reducao.aplicar();
+            System.out.println("Instancias: " + iInstancias + " -> " 
+                    + bd.recuperarNumeroInstancias());
+        }
+        // aplica o metodo C-Means
+        if(opcoes.containsKey("-execucoes"))
+        {
+            agruparMultiplo(bd, numeroClusters, opcoes);
+            return;
+        }
+        if(opcoes.containsKey("-varredura"))
+        {
+            agruparVarredura(bd, numeroClusters, opcoes);
+            return;
+        }
+        AgrupamentoCMeans cmeans = new AgrupamentoCMeans(bd, numeroClusters);
+        if(opcoes.containsKey("-threads"))
+        {
+            cmeans.definirParalelismo(Integer.parseInt(opcoes.get("-threads")));
+        }
+        if(opcoes.containsKey("-maxiter") || opcoes.containsKey("-prazo"))
+        {
+            cmeans.definirLimites(
+                    opcoes.containsKey("-maxiter") ? Integer.parseInt(opcoes.get("-maxiter")) : 0,
+                    opcoes.containsKey("-prazo") ? Long.parseLong(opcoes.get("-prazo")) : 0);
+        }
+        if(opcoes.containsKey("-aceleracao"))
+        {
+            cmeans.definirAceleracao(Integer.parseInt(opcoes.get("-aceleracao")));
+        }
+        if(opcoes.containsKey("-inicializacao") || opcoes.containsKey("-semente"))
+        {
+            cmeans.definirInicializacao(opcoes.containsKey("-inicializacao")
+                    ? interpretarInicializacao(opcoes.get("-inicializacao")) 
+                    : AgrupamentoCMeans.INICIALIZACAO_PARTICAO,
+                    opcoes.containsKey("-amostra") ? Integer.parseInt(opcoes.get("-amostra")) : 0,
+                    opcoes.containsKey("-semente") ? Long.parseLong(opcoes.get("-semente")) 
+                    : System.nanoTime());
+        }
+        // semente dos modos esparso e mini-lotes, que sorteiam os centroides
+        long lSemente = opcoes.containsKey("-semente") ? Long.parseLong(opcoes.get("-semente")) 
+                : System.nanoTime();
+        if(opcoes.containsKey("-semparticao"))
+        {
+            agruparSemParticao(cmeans, numeroClusters, opcoes.get("-semparticao"), reducao);
+        }
+        else if(opcoes.containsKey("-esparsa"))
+        {
+            cmeans.aplicarAlgoritmoEsparso(Integer.parseInt(opcoes.get("-esparsa")), 0,
+                    lSemente);
+        }
+        else if(opcoes.containsKey("-minilote"))
+        {
+            cmeans.aplicarAlgoritmoMiniLotes(Integer.parseInt(opcoes.get("-minilote")), 
+                    lSemente);
+        }
+        else if(opcoes.containsKey("-inicial"))
+        {
+            cmeans.aplicarAlgoritmoModelo(ModeloCMeans.carregar(new File(opcoes.get("-inicial"))));
+        }
+        else
+        {
+            cmeans.aplicarAlgoritmo();
+        }
+        if(opcoes.containsKey("-aceleracao"))
+        {
+            System.out.println("Iteracoes: " + cmeans.recuperarNumeroIteracoes()
+                    + " (" + cmeans.recuperarRejeicoesAceleracao() + " passos acelerados desfeitos)");
+        }
+        else if(opcoes.containsKey("-inicializacao") || opcoes.containsKey("-inicial"))
+        {
+            System.out.println("Iteracoes: " + cmeans.recuperarNumeroIteracoes());
+        }
+        if(opcoes.containsKey("-maxiter") || opcoes.containsKey("-prazo"))
+        {
+            System.out.println("Situacao: " + cmeans.recuperarNomeSituacao()
+                    + " apos " + cmeans.recuperarNumeroIteracoes() + " iteracoes");
+        }
+        gravarModelo(cmeans, opcoes);
+        // imprime o resultado   
+        System.out.print(cmeans);
+    }
+    
+    
+    /**
+     * Aplica o metodo C-Means a partir de varias inicializacoes, executadas
+     * ao mesmo tempo com o numero de threads da opcao -threads, e imprime o
+     * resumo das execucoes e o melhor resultado
+     * @param bd a base de dados
+     * @param numeroClusters o numero de clusters
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected void agruparMultiplo(BaseDados bd, int numeroClusters, 
+            Map<String, String> opcoes) throws Exception
+    {
+        AgrupamentoMultiplo multiplo = new AgrupamentoMultiplo(bd, numeroClusters);
+        multiplo.definirNumeroExecucoes(Integer.parseInt(opcoes.get("-execucoes")));
+        if(opcoes.containsKey("-threads"))
+        {
+            multiplo.definirParalelismo(Integer.parseInt(opcoes.get("-threads")));
+        }
+        if(opcoes.containsKey("-semente"))
+        {
+            multiplo.definirSemente(Long.parseLong(opcoes.get("-semente")));
+        }
+        if(opcoes.containsKey("-inicializacao"))
+        {
+            multiplo.definirInicializacao(interpretarInicializacao(opcoes.get("-inicializacao")),
+                    opcoes.containsKey("-amostra") ? Integer.parseInt(opcoes.get("-amostra")) : 0);
+        }
+        if(opcoes.containsKey("-maxiter") || opcoes.containsKey("-prazo"))
+        {
+            multiplo.definirLimites(
+                    opcoes.containsKey("-maxiter") ? Integer.parseInt(opcoes.get("-maxiter")) : 0,
+                    opcoes.containsKey("-prazo") ? Long.parseLong(opcoes.get("-prazo")) : 0);
+        }
+        if(opcoes.containsKey("-aceleracao"))
+        {
+            multiplo.definirAceleracao(Integer.parseInt(opcoes.get("-aceleracao")));
+        }
+        AgrupamentoCMeans cmeans = multiplo.aplicar();
+        gravarModelo(cmeans, opcoes);
+        System.out.print(multiplo.recuperarResumo());
+        System.out.print(cmeans);
+    }
+    
+    
+    /**
+     * Aplica o metodo C-Means para cada numero de clusters entre
+     * numeroClusters e o valor da opcao -varredura e imprime a classificacao
+     * pelos indices de validade e o melhor resultado
+     * @param bd a base de dados
+     * @param numeroClusters o menor numero de clusters
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected void agruparVarredura(BaseDados bd, int numeroClusters, 
+            Map<String, String> opcoes) throws Exception
+    {
+        VarreduraClusters varredura = new VarreduraClusters(bd, numeroClusters, 
+                Integer.parseInt(opcoes.get("-varredura")));
+        if(opcoes.containsKey("-threads"))
+        {
+            varredura.definirParalelismo(Integer.parseInt(opcoes.get("-threads")));
+        }
+        if(opcoes.containsKey("-semente"))
+        {
+            varredura.definirSemente(Long.parseLong(opcoes.get("-semente")));
+        }
+        if(opcoes.containsKey("-inicializacao"))
+        {
+            varredura.definirInicializacao(interpretarInicializacao(opcoes.get("-inicializacao")),
+                    opcoes.containsKey("-amostra") ? Integer.parseInt(opcoes.get("-amostra")) : 0);
+        }
+        if(opcoes.containsKey("-maxiter") || opcoes.containsKey("-prazo"))
+        {
+            varredura.definirLimites(
+                    opcoes.containsKey("-maxiter") ? Integer.parseInt(opcoes.get("-maxiter")) : 0,
+                    opcoes.containsKey("-prazo") ? Long.parseLong(opcoes.get("-prazo")) : 0);
+        }
+        if(opcoes.containsKey("-aceleracao"))
+        {
+            varredura.definirAceleracao(Integer.parseInt(opcoes.get("-aceleracao")));
+        }
+        varredura.aplicar();
+        gravarModelo(varredura.recuperarMelhor(), opcoes);
+        System.out.print(varredura.recuperarResumo());
+        System.out.print(varredura.recuperarMelhor());
+    }
+    
+    
+    /**
+     * Grava o modelo do agrupamento no arquivo da opcao -modelo, se houver
+     * @param cmeans o agrupamento ja aplicado
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected void gravarModelo(AgrupamentoCMeans cmeans, Map<String, String> opcoes) 
+    throws Exception
+    {
+        if(opcoes.containsKey("-modelo"))
+        {
+            cmeans.recuperarModelo().gravar(new File(opcoes.get("-modelo")));
+        }
+    }
+    
+    
+    /**
+     * Converte o nome da estrategia de inicializacao na constante de
+     * AgrupamentoCMeans
+     * @param nome particao, sorteio ou kmeans++
+     */
+    protected static int interpretarInicializacao(String nome)
+    {
+        if(nome.equals("particao"))
+        {
+            return AgrupamentoCMeans.INICIALIZACAO_PARTICAO;
+        }
+        if(nome.equals("sorteio"))
+        {
+            return AgrupamentoCMeans.INICIALIZACAO_SORTEIO;
+        }
+        if(nome.equals("kmeans++"))
+        {
+            return AgrupamentoCMeans.INICIALIZACAO_KMEANSPP;
+        }
+        throw new IllegalArgumentException("Inicialização desconhecida: " + nome);
+    }
+    
+    
+    /**
+     * Aplica o metodo C-Means sem manter a matriz de particoes, gravando as
+     * pertinencias finais de cada instancia, uma por linha, no arquivo dado
+     * @param cmeans o algoritmo ja configurado
+     * @param numeroClusters o numero de clusters
+     * @param caminhoSaida o arquivo das pertinencias, ou "-" para nao grava-las
+     * @param reducao a reducao aplicada a base, ou nulo; com reducao, as
+     * pertinencias dos representantes sao guardadas em um vetor de
+     * representantes x clusters e cada instancia original recebe a linha do
+     * seu representante
+     */
+    protected void agruparSemParticao(AgrupamentoCMeans cmeans, int numeroClusters,
+            String caminhoSaida, ReducaoDuplicatas reducao) throws Exception
+    {
+        if(caminhoSaida.equals("-"))
+        {
+            cmeans.aplicarAlgoritmoSemParticao(false, null);
+            return;
+        }
+        final PrintWriter saida = new PrintWriter(new BufferedWriter(new FileWriter(caminhoSaida)));
+        try
+        {
+            if(reducao != null)
+            {
+                final double[] pertinenciasReduzidas = new double[
+                        reducao.recuperarBaseReduzida().recuperarNumeroInstancias() * numeroClusters];
+                cmeans.aplicarAlgoritmoSemParticao(false, new ReceptorPertinencias()
+                {
+                    public void receber(int indiceInstancia, double[] pertinencias)
+                    {
+                        System.arraycopy(pertinencias, 0, pertinenciasReduzidas,
+                                indiceInstancia * pertinencias.length, pertinencias.length);
+                    }
+                });
+                for(int r : reducao.recuperarRepresentantes())
+                {
+                    for(int i = 0; i < numeroClusters; i++)
+                    {
+                        saida.print(pertinenciasReduzidas[r * numeroClusters + i]);
+                        saida.print('\t');
+                    }
+                    saida.println();
+                }
+                return;
+            }
+            cmeans.aplicarAlgoritmoSemParticao(false, new ReceptorPertinencias()
+            {
+                public void receber(int indiceInstancia, double[] pertinencias)
+                {
+                    for(int i = 0; i < pertinencias.length; i++)
+                    {
+                        saida.print(pertinencias[i]);
+                        saida.print('\t');
+                    }
+                    saida.println();
+                }
+            });
+        }
+        finally
+        {
+            saida.close();
+        }
+    }
+    
+    
+    /**
+     * Imprime o erro ocorrido na execucao e encerra o programa
+     */
+    protected void imprimeErro(Exception exc)
+    {
+        System.out.println("Erro na execução do método C-Means");
+        System.out.println(exc.getLocalizedMessage());
+        exc.printStackTrace();
+        System.exit(1);
+    }
+    
+    
+    /**
+     * Função de entrada da aplicação
+     * @param args os argumentos
+     *   1o. - caminho para o arquivo texto da base de dados
+     *   2o. - numero de clusters a utilizar
+     *   demais - opcoes no formato -nome valor
+     */
+    public static void main(String[] args) 
+    {
+        if(args.length < 2 || args.length % 2 != 0)
+        {
+            imprimeUso();
+        }
+        Map<String, String> opcoes = new HashMap<String, String>();
+        for(int i = 2; i < args.length; i += 2)
+        {
+            if(!args[i].startsWith("-"))
+            {
+                imprimeUso();
+            }
+            opcoes.put(args[i], args[i + 1]);
+        }
+        // Tenta carregar o arquivo e interpretar o numero de clusters
+        try
+        {
+            // verifica o arquivo da base
+            File arquivo = new File(args[0]);
+            if(!arquivo.canRead())
+            {
+                throw new FileNotFoundException(args[0]);
+            }
+            // le o numero de clusters
+            int nClusters = Integer.parseInt(args[1]);            
+            verificarOpcoes(opcoes);
+            Main main = new Main(arquivo, nClusters, opcoes);
+        }
+        catch(IOException exc)
+        {
+            System.out.printf("Não foi possivel abrir o arquivo %s", args[0]);
+            System.out.println();
+            imprimeUso();
+        }
+        catch(NumberFormatException exc)
+        {
+            System.out.printf("%s é um número inválidos de clusters.", args[1]);
+            System.out.println();
+            imprimeUso();
+        }
+        catch(Exception exc)
+        {
+            System.out.println(exc.getLocalizedMessage());
+            System.out.println();
+            imprimeUso();
+        }
+    }
+    
+    
+    /**
+     * Rejeita as combinacoes de opcoes em que uma delas seria ignorada
+     * @param opcoes as opcoes de linha de comando
+     */
+    protected static void verificarOpcoes(Map<String, String> opcoes)
+    {
+        // so o modo padrao parte dos centroides de um modelo
+        String[] modosSemInicial = {"-semparticao", "-esparsa", "-minilote", 
+            "-execucoes", "-varredura"};
+        if(opcoes.containsKey("-inicial"))
+        {
+            for(String modo : modosSemInicial)
+            {
+                if(opcoes.containsKey(modo))
+                {
+                    throw new IllegalArgumentException("A opção -inicial não pode ser"
+                            + " combinada com " + modo + ".");
+                }
+            }
+        }
+    }
+    
+    
+    /*
+     * Imprime a forma de uso do programa caso o usuário
+     * entre com parâmetros inválidos ou arquivo inexistente
+     */
+    public static void imprimeUso()
+    {
+        System.out.println("Parametros invalidos ou arquivo inexistente.\n");  
+        System.out.println("Uso: CMeans [caminho] [k] [opcoes]\n");
+        
+        System.out.println("[caminho] localização para o arquivo texto que " 
+           + "contém a base de dados" +
+           ", com os atributos separados com espaços e uma instância por linha" +
+           ", ou para o arquivo binário (.cmb) gerado por cmeans.BaseDadosBinaria"); 
+        System.out.println("[k] número de clusters a utilizar"); 
+        System.out.println("[opcoes]");
+        System.out.println("  -threads n  número de threads usadas na leitura da base e em cada iteração (padrão 1)");
+        System.out.println("  -minilote b executa o método em mini-lotes de b instâncias sorteadas");
+        System.out.println("  -esparsa k  guarda apenas as k maiores pertinências de cada instância");
+        System.out.println("  -execucoes r executa r inicializações em paralelo e fica com a de menor J_m");
+        System.out.println("  -semente s  semente dos sorteios (com -execucoes, da primeira execução)");
+        System.out.println("  -varredura kmax  executa de k a kmax clusters em paralelo e ordena"
+           + " os resultados pelo índice de Xie-Beni");
+        System.out.println("  -inicializacao e  particao (padrão), sorteio (padrão com -execucoes)"
+           + " ou kmeans++ (padrão com -varredura); imprime o número de iterações");
+        System.out.println("  -amostra n  escolhe os centros do kmeans++ em n instâncias sorteadas");
+        System.out.println("  -modelo arquivo  grava o modelo (centroides, m e máximos) para"
+           + " pontuar novas instâncias com cmeans.ModeloCMeans");
+        System.out.println("  -inicial arquivo  parte dos centroides de um modelo gravado com -modelo;"
+           + " imprime o número de iterações (não combina com -semparticao, -esparsa,"
+           + " -minilote, -execucoes e -varredura)");
+        System.out.println("  -maxiter n  número máximo de iterações");
+        System.out.println("  -prazo ms   tempo máximo da execução, em milissegundos"
+           + " (com -maxiter ou -prazo, imprime se o método convergiu ou parou em um limite)");
+        System.out.println("  -aceleracao q  acelera os centroides combinando as q últimas iterações"
+           + " (Anderson); imprime o número de iterações");
+        System.out.println("  -duplicatas passo  junta as instâncias repetidas em representantes"
+           + " com peso; com passo > 0, junta as de cada célula de lado passo (dados normalizados)");
+        System.out.println("  -semparticao arquivo  executa o método sem manter a matriz de partições,"
+           + " gravando as pertinências finais no arquivo (\"-\" para não gravar)");
+        System.exit(1);
+    }
+    
+}
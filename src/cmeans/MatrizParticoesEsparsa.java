@@ -0,0 +1,234 @@
+/*
+ * MatrizParticoesEsparsa.java
+ *
+ * Created on 19 de Outubro de 2026, 09:15
+ */
+
+package cmeans;
+import java.util.*;
+
+/**
+ * Matriz de particoes esparsa: cada instancia guarda apenas as suas maiores
+ * pertinencias, no maximo k, renormalizadas para somar 1. As demais
+ * pertinencias valem 0. Os indices e os valores ficam em vetores contiguos
+ * de dimensao n x k, de modo que a memoria e O(n x k) em vez de O(n x c).
+ * As entradas de cada instancia ficam em ordem decrescente de pertinencia.
+ * @author Daniel Saraiva Leite
+ */
+public class MatrizParticoesEsparsa
+{
+    protected int numeroInstancias;
+    protected int numeroClusters;
+    protected int maximoEntradas;  // k
+    protected int[] indices;       // dim. n x k: cluster de cada entrada
+    protected double[] valores;    // dim. n x k: pertinencia de cada entrada
+    protected int[] quantidades;   // numero de entradas de cada instancia
+
+
+    /**
+     * Construtor
+     * @param numeroInstancias o numero de instancias
+     * @param numeroClusters o numero de clusters
+     * @param maximoEntradas o numero maximo de pertinencias por instancia
+     */
+    public MatrizParticoesEsparsa(int numeroInstancias, int numeroClusters, int maximoEntradas)
+    {
+        this.numeroInstancias = numeroInstancias;
+        this.numeroClusters = numeroClusters;
+        this.maximoEntradas = Math.max(1, Math.min(maximoEntradas, numeroClusters));
+        this.indices = new int[numeroInstancias * this.maximoEntradas];
+        this.valores = new double[numeroInstancias * this.maximoEntradas];
+        this.quantidades = new int[numeroInstancias];
+    }
+
+
+    /**
+     * Guarda as maiores pertinencias de uma instancia a partir da linha
+     * densa: escolhe as k maiores, descarta as menores do que o limiar
+     * (mantendo sempre a maior) e renormaliza as restantes para somar 1
+     * @param indiceInstancia o indice da instancia
+     * @param pertinencias a linha densa, de dimensao c
+     * @param limiar a menor pertinencia guardada
+     */
+    public void definirLinha(int indiceInstancia, double[] pertinencias, double limiar)
+    {
+        int iBase = indiceInstancia * maximoEntradas;
+        int iQuantidade = 0;
+        double dMenorGuardada = 0;
+        // insercao ordenada nas k posicoes da instancia
+        for(int i = 0; i < numeroClusters; i++)
+        {
+            double dValor = pertinencias[i];
+            if(iQuantidade == maximoEntradas && !(dValor > dMenorGuardada))
+            {
+                continue;
+            }
+            int p = (iQuantidade < maximoEntradas) ? iQuantidade++ : iQuantidade - 1;
+            while(p > 0 && valores[iBase + p - 1] < dValor)
+            {
+                valores[iBase + p] = valores[iBase + p - 1];
+                indices[iBase + p] = indices[iBase + p - 1];
+                p--;
+            }
+            valores[iBase + p] = dValor;
+            indices[iBase + p] = i;
+            dMenorGuardada = valores[iBase + iQuantidade - 1];
+        }
+        // descarta as pertinencias abaixo do limiar
+        while(iQuantidade > 1 && valores[iBase + iQuantidade - 1] < limiar)
+        {
+            iQuantidade--;
+        }
+        double dSoma = 0;
+        for(int p = 0; p < iQuantidade; p++)
+        {
+            dSoma += valores[iBase + p];
+        }
+        for(int p = 0; p < iQuantidade; p++)
+        {
+            valores[iBase + p] /= dSoma;
+        }
+        quantidades[indiceInstancia] = iQuantidade;
+    }
+
+
+    /**
+     * Guarda as pertinencias de uma instancia ja selecionadas e
+     * renormalizadas, em ordem decrescente
+     * @param indiceInstancia o indice da instancia
+     * @param indicesClusters os clusters das pertinencias
+     * @param pertinencias as pertinencias
+     * @param quantidade o numero de pertinencias, no maximo k
+     */
+    public void definirEntradas(int indiceInstancia, int[] indicesClusters, 
+            double[] pertinencias, int quantidade)
+    {
+        int iBase = indiceInstancia * maximoEntradas;
+        System.arraycopy(indicesClusters, 0, indices, iBase, quantidade);
+        System.arraycopy(pertinencias, 0, valores, iBase, quantidade);
+        quantidades[indiceInstancia] = quantidade;
+    }
+
+
+    /**
+     * Recupera a pertinencia de uma instancia a um cluster, 0 se ela nao
+     * estiver entre as guardadas
+     * @param indiceInstancia o indice da instancia
+     * @param indiceCluster o indice do cluster
+     */
+    public double recuperarPertinencia(int indiceInstancia, int indiceCluster)
+    {
+        int iBase = indiceInstancia * maximoEntradas;
+        for(int p = 0; p < quantidades[indiceInstancia]; p++)
+        {
+            if(indices[iBase + p] == indiceCluster)
+            {
+                return valores[iBase + p];
+            }
+        }
+        return 0;
+    }
+
+
+    /**
+     * Copia a linha densa de uma instancia para um vetor ja alocado
+     * @param indiceInstancia o indice da instancia
+     * @param destino vetor de dimensao c
+     * @return o proprio vetor destino
+     */
+    public double[] copiarLinha(int indiceInstancia, double[] destino)
+    {
+        Arrays.fill(destino, 0, numeroClusters, 0);
+        int iBase = indiceInstancia * maximoEntradas;
+        for(int p = 0; p < quantidades[indiceInstancia]; p++)
+        {
+            destino[indices[iBase + p]] = valores[iBase + p];
+        }
+        return destino;
+    }
+
+
+    /**
+     * Retorna a linha densa de uma instancia, com dimensao c
+     * @param indiceInstancia o indice da instancia
+     */
+    public double[] recuperarLinha(int indiceInstancia)
+    {
+        return copiarLinha(indiceInstancia, new double[numeroClusters]);
+    }
+
+
+    /**
+     * Retorna a matriz densa n x c, no formato de
+     * AgrupamentoCMeans.recuperarMatrizParticoes. A matriz e montada a cada
+     * chamada e ocupa O(n x c).
+     */
+    public double[][] recuperarMatrizDensa()
+    {
+        double[][] matriz = new double[numeroInstancias][];
+        for(int k = 0; k < numeroInstancias; k++)
+        {
+            matriz[k] = recuperarLinha(k);
+        }
+        return matriz;
+    }
+
+
+    /**
+     * Recupera o numero de pertinencias guardadas para uma instancia
+     * @param indiceInstancia o indice da instancia
+     */
+    public int recuperarQuantidade(int indiceInstancia)
+    {
+        return quantidades[indiceInstancia];
+    }
+
+
+    /**
+     * Recupera o cluster da entrada p de uma instancia
+     * @param indiceInstancia o indice da instancia
+     * @param p a posicao da entrada, de 0 a recuperarQuantidade - 1
+     */
+    public int recuperarIndice(int indiceInstancia, int p)
+    {
+        return indices[indiceInstancia * maximoEntradas + p];
+    }
+
+
+    /**
+     * Recupera a pertinencia da entrada p de uma instancia
+     * @param indiceInstancia o indice da instancia
+     * @param p a posicao da entrada, de 0 a recuperarQuantidade - 1
+     */
+    public double recuperarValor(int indiceInstancia, int p)
+    {
+        return valores[indiceInstancia * maximoEntradas + p];
+    }
+
+
+    /**
+     * Recupera o numero de instancias
+     */
+    public int recuperarNumeroInstancias()
+    {
+        return numeroInstancias;
+    }
+
+
+    /**
+     * Recupera o numero de clusters
+     */
+    public int recuperarNumeroClusters()
+    {
+        return numeroClusters;
+    }
+
+
+    /**
+     * Recupera o numero maximo de pertinencias por instancia
+     */
+    public int recuperarMaximoEntradas()
+    {
+        return maximoEntradas;
+    }
+}
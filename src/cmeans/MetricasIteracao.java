@@ -0,0 +1,196 @@
+/*
+ * MetricasIteracao.java
+ *
+ * Created on 19 de Outubro de 2026, 12:45
+ */
+
+package cmeans;
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * Metricas de uma iteracao do C-Means, entregues ao OuvinteIteracoes: o
+ * numero da iteracao, a diferenca medida pelo criterio de parada, a funcao
+ * objetivo J_m, o tempo de cada fase e os bytes alocados durante a iteracao
+ * pela thread da execucao e pelas threads do seu pool; outras threads da
+ * JVM, como as de execucoes simultaneas, nao sao contadas. Nos modos que
+ * calculam as pertinencias e os centroides em uma unica passada (sem
+ * particao e esparso), o tempo fica todo na fase das particoes e J_m nao e
+ * calculado (NaN). No modo mini-lotes, cada passo conta como uma iteracao e
+ * J_m tambem e NaN.
+ * @author Daniel Saraiva Leite
+ */
+public class MetricasIteracao
+{
+    // obter o bean aloca memoria, entao ele e obtido uma unica vez
+    protected static final ThreadMXBean beanThreads = ManagementFactory.getThreadMXBean();
+    protected int iteracao;
+    protected double delta;
+    protected double objetivo;
+    protected long nanosCentroides;
+    protected long nanosParticoes;
+    protected long bytesAlocados;
+    protected Thread[] threadsMedidas = new Thread[1]; // a primeira e a da execucao
+    protected long[] bytesInicioThreads = new long[1];
+    protected int nThreadsMedidas;
+
+
+    /**
+     * Retorna o numero da iteracao, a partir de 1
+     */
+    public int recuperarIteracao()
+    {
+        return iteracao;
+    }
+
+
+    /**
+     * Retorna a diferenca entre as duas ultimas particoes (ou centroides),
+     * comparada com epsilon pelo criterio de parada
+     */
+    public double recuperarDelta()
+    {
+        return delta;
+    }
+
+
+    /**
+     * Retorna a funcao objetivo J_m da nova particao, ou NaN
+     */
+    public double recuperarObjetivo()
+    {
+        return objetivo;
+    }
+
+
+    /**
+     * Retorna o tempo do calculo dos centroides, em nanossegundos
+     */
+    public long recuperarNanosCentroides()
+    {
+        return nanosCentroides;
+    }
+
+
+    /**
+     * Retorna o tempo do calculo da particao, em nanossegundos
+     */
+    public long recuperarNanosParticoes()
+    {
+        return nanosParticoes;
+    }
+
+
+    /**
+     * Retorna os bytes alocados durante a iteracao, ou -1 se a JVM nao
+     * fornecer essa medida
+     */
+    public long recuperarBytesAlocados()
+    {
+        return bytesAlocados;
+    }
+
+
+    /**
+     * Guarda os bytes ja alocados pela thread que chama e pelas threads do
+     * pool, no inicio de uma iteracao. As threads do pool que terminaram sao
+     * retiradas da lista.
+     * @param threadsPool as threads criadas pelo pool da execucao; a lista e
+     * sincronizada por ela mesma
+     */
+    void iniciarBytes(List<Thread> threadsPool)
+    {
+        synchronized(threadsPool)
+        {
+            for(int t = threadsPool.size() - 1; t >= 0; t--)
+            {
+                if(!threadsPool.get(t).isAlive())
+                {
+                    threadsPool.remove(t);
+                }
+            }
+            nThreadsMedidas = threadsPool.size() + 1;
+            if(threadsMedidas.length < nThreadsMedidas)
+            {
+                threadsMedidas = new Thread[nThreadsMedidas];
+                bytesInicioThreads = new long[nThreadsMedidas];
+            }
+            threadsMedidas[0] = Thread.currentThread();
+            for(int t = 1; t < nThreadsMedidas; t++)
+            {
+                threadsMedidas[t] = threadsPool.get(t - 1);
+            }
+        }
+        // a thread que chama e medida por ultimo, para nao contar a alocacao
+        // feita pela propria medicao das outras
+        for(int t = nThreadsMedidas - 1; t >= 0; t--)
+        {
+            bytesInicioThreads[t] = medirBytesAlocados(threadsMedidas[t]);
+        }
+    }
+
+
+    /**
+     * Calcula os bytes alocados desde iniciarBytes pela thread que chama e
+     * pelas threads do pool, inclusive as criadas durante a iteracao. Uma
+     * thread que terminou durante a iteracao deixa de ser contada, de modo
+     * que o total nunca e negativo; se a JVM nao fornecer a medida, o total
+     * e -1.
+     * @param threadsPool as threads criadas pelo pool da execucao
+     */
+    void concluirBytes(List<Thread> threadsPool)
+    {
+        if(medirBytesAlocados(Thread.currentThread()) < 0)
+        {
+            bytesAlocados = -1;
+            return;
+        }
+        long lTotal = 0;
+        synchronized(threadsPool)
+        {
+            // as threads da lista so sao retiradas em iniciarBytes, entao as
+            // primeiras sao as mesmas do inicio da iteracao
+            for(int t = 0; t < threadsPool.size() + 1; t++)
+            {
+                Thread thread = (t == 0) ? Thread.currentThread() : threadsPool.get(t - 1);
+                long lBytes = medirBytesAlocados(thread);
+                long lInicio = (t < nThreadsMedidas) ? bytesInicioThreads[t] : 0;
+                if(lBytes >= 0)
+                {
+                    lTotal += lBytes - Math.max(0, lInicio);
+                }
+            }
+        }
+        bytesAlocados = lTotal;
+    }
+
+
+    /**
+     * Retorna os bytes ja alocados por uma thread, ou -1 se a thread nao
+     * estiver viva ou a JVM nao fornecer essa medida. So a medida da thread
+     * que chama e feita sem alocar memoria.
+     */
+    @SuppressWarnings("deprecation") // threadId() so existe a partir do Java 19
+    protected static long medirBytesAlocados(Thread thread)
+    {
+        if(!(beanThreads instanceof com.sun.management.ThreadMXBean))
+        {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean beanSun = (com.sun.management.ThreadMXBean) beanThreads;
+        if(!beanSun.isThreadAllocatedMemorySupported() || !beanSun.isThreadAllocatedMemoryEnabled())
+        {
+            return -1;
+        }
+        return (thread == Thread.currentThread()) ? beanSun.getCurrentThreadAllocatedBytes()
+                : beanSun.getThreadAllocatedBytes(thread.getId());
+    }
+
+
+    public String toString()
+    {
+        return String.format("iteracao %d: delta = %.6g, J = %.6f, centroides %d us, "
+                + "particoes %d us, %d bytes alocados", iteracao, delta, objetivo,
+                nanosCentroides / 1000, nanosParticoes / 1000, bytesAlocados);
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * ModeloCMeans.java
+ *
+ * Created on 19 de Outubro de 2026, 11:50
+ */
+
+package cmeans;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Modelo resultante de um agrupamento: os centroides, o m e o maximo de
+ * cada atributo usado na normalizacao da base de treino. O modelo calcula as
+ * pertinencias e o cluster de maior pertinencia (rotulo) de instancias novas
+ * sem treinar de novo. As instancias sao processadas em trechos de
+ * instanciasPorTrecho, em paralelo quando ha mais de uma thread, e cada
+ * trecho usa buffers proprios alocados uma vez, de modo que nao ha alocacao
+ * por instancia. Os centroides ficam no espaco normalizado, como em
+ * AgrupamentoCMeans; os valores novos sao divididos pelos maximos do treino.
+ *
+ * Formato do arquivo (little-endian):
+ *  - "CMMD" (4 bytes) e a versao do formato (int)
+ *  - numero de clusters (int) e numero de atributos (int)
+ *  - m (double)
+ *  - maximo de cada atributo (double)
+ *  - centroides (double), centroide a centroide
+ * @author Daniel Saraiva Leite
+ */
+public class ModeloCMeans
+{
+    public static final int assinatura = 0x444D4D43; // "CMMD" em little-endian
+    public static final int versao = 1;
+    public static final int tamanhoCabecalho = 24; // sem os maximos e os centroides
+    public static final String extensao = ".cmm";
+    public static final int instanciasPorTrecho = 4096;
+    protected int nClusters;
+    protected int nAtributos;
+    protected double m;
+    protected double[] maximos;           // maximo de cada atributo no treino
+    protected double[][] matrizCentroides; // dim. c clusters x m atributos, normalizados
+    protected NucleoPertinencias nucleo;
+    protected OperacoesVetoriais operacoes = OperacoesVetoriais.padrao;
+    protected ForkJoinPool pool; // nulo quando a pontuacao e serial
+
+
+    /**
+     * Construtor
+     * @param matrizCentroides os centroides, no espaco normalizado; sao copiados
+     * @param m o expoente das pertinencias
+     * @param maximos o maximo de cada atributo usado na normalizacao
+     */
+    public ModeloCMeans(double[][] matrizCentroides, double m, double[] maximos)
+    {
+        this.nClusters = matrizCentroides.length;
+        this.nAtributos = maximos.length;
+        this.m = m;
+        this.maximos = maximos.clone();
+        this.matrizCentroides = new double[nClusters][];
+        for(int i = 0; i < nClusters; i++)
+        {
+            if(matrizCentroides[i].length != nAtributos)
+            {
+                throw new IllegalArgumentException("O centroide " + i + " tem "
+                        + matrizCentroides[i].length + " atributos; esperado " + nAtributos);
+            }
+            this.matrizCentroides[i] = matrizCentroides[i].clone();
+        }
+        this.nucleo = NucleoPertinencias.selecionar(m);
+    }
+
+
+    /**
+     * Carrega um modelo gravado por gravar
+     * @param arquivo o arquivo do modelo
+     */
+    public static ModeloCMeans carregar(File arquivo) throws Exception
+    {
+        byte[] conteudo = Files.readAllBytes(arquivo.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo).order(ByteOrder.LITTLE_ENDIAN);
+        if(conteudo.length < tamanhoCabecalho || buffer.getInt() != assinatura
+                || buffer.getInt() != versao)
+        {
+            throw new Exception("Arquivo " + arquivo.getName() + " nao e um modelo "
+                    + "na versao " + versao + ".");
+        }
+        int nClusters = buffer.getInt();
+        int nAtributos = buffer.getInt();
+        double m = buffer.getDouble();
+        if(nClusters <= 0 || nAtributos <= 0
+                || conteudo.length != tamanhoCabecalho + 8L * nAtributos * (nClusters + 1))
+        {
+            throw new Exception("Cabecalho invalido no arquivo " + arquivo.getName() + ".");
+        }
+        double[] maximos = new double[nAtributos];
+        buffer.asDoubleBuffer().get(maximos);
+        buffer.position(buffer.position() + 8 * nAtributos);
+        double[][] centroides = new double[nClusters][nAtributos];
+        for(int i = 0; i < nClusters; i++)
+        {
+            buffer.asDoubleBuffer().get(centroides[i]);
+            buffer.position(buffer.position() + 8 * nAtributos);
+        }
+        return new ModeloCMeans(centroides, m, maximos);
+    }
+
+
+    /**
+     * Grava o modelo
+     * @param destino o arquivo do modelo
+     */
+    public void gravar(File destino) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanhoCabecalho
+                + 8 * nAtributos * (nClusters + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(assinatura).putInt(versao).putInt(nClusters).putInt(nAtributos);
+        buffer.putDouble(m);
+        for(int j = 0; j < nAtributos; j++)
+        {
+            buffer.putDouble(maximos[j]);
+        }
+        for(int i = 0; i < nClusters; i++)
+        {
+            for(int j = 0; j < nAtributos; j++)
+            {
+                buffer.putDouble(matrizCentroides[i][j]);
+            }
+        }
+        buffer.flip();
+        FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try
+        {
+            while(buffer.hasRemaining())
+            {
+                canal.write(buffer);
+            }
+        }
+        finally
+        {
+            canal.close();
+        }
+    }
+
+
+    /**
+     * Define o numero de threads usadas na pontuacao
+     * @param paralelismo o numero de threads. Se menor ou igual a 1, a
+     * pontuacao e serial.
+     */
+    public void definirParalelismo(int paralelismo)
+    {
+        if(pool != null)
+        {
+            pool.shutdown();
+            pool = null;
+        }
+        if(paralelismo > 1)
+        {
+            pool = new ForkJoinPool(paralelismo);
+        }
+    }
+
+
+    /**
+     * Calcula as pertinencias e os rotulos de instancias com os valores
+     * originais, nao normalizados
+     * @param valores os valores, instancia a instancia (dim. quantidade x
+     * m atributos)
+     * @param quantidade o numero de instancias
+     * @param pertinencias vetor de dimensao quantidade x c que recebe as
+     * pertinencias, instancia a instancia, ou nulo para calcular so os rotulos
+     * @param rotulos vetor de dimensao quantidade que recebe o cluster de
+     * maior pertinencia de cada instancia, ou nulo
+     */
+    public void pontuar(double[] valores, int quantidade, double[] pertinencias, int[] rotulos)
+    throws Exception
+    {
+        double[] fatores = new double[nAtributos];
+        for(int j = 0; j < nAtributos; j++)
+        {
+            fatores[j] = 1 / maximos[j];
+        }
+        pontuar(valores, quantidade, fatores, pertinencias, rotulos);
+    }
+
+
+    /**
+     * Calcula as pertinencias e os rotulos das instancias de uma base. A
+     * base foi normalizada pelos seus proprios maximos; os valores sao
+     * levados para a normalizacao do treino.
+     * @param base a base de dados
+     * @param pertinencias vetor de dimensao n x c, ou nulo
+     * @param rotulos vetor de dimensao n, ou nulo
+     */
+    public void pontuar(BaseDados base, double[] pertinencias, int[] rotulos) throws Exception
+    {
+        if(base.recuperarNumeroAtributos() != nAtributos)
+        {
+            throw new IllegalArgumentException("A base tem " + base.recuperarNumeroAtributos()
+                    + " atributos; o modelo, " + nAtributos);
+        }
+        double[] fatores = new double[nAtributos];
+        for(int j = 0; j < nAtributos; j++)
+        {
+            fatores[j] = base.recuperarMaximos()[j] / maximos[j];
+        }
+        pontuar(base.recuperarDadosContiguos(), base.recuperarNumeroInstancias(), fatores,
+                pertinencias, rotulos);
+    }
+
+
+    /**
+     * Divide as instancias em trechos e os pontua, em paralelo se houver pool
+     * @param fatores o fator que leva cada atributo ao espaco normalizado do
+     * treino
+     */
+    protected void pontuar(final double[] dados, int quantidade, final double[] fatores,
+            final double[] pertinencias, final int[] rotulos) throws Exception
+    {
+        int iTrechos = (quantidade + instanciasPorTrecho - 1) / instanciasPorTrecho;
+        if(pool == null || iTrechos < 2)
+        {
+            pontuarIntervalo(dados, 0, quantidade, fatores, pertinencias, rotulos);
+            return;
+        }
+        List<Callable<Void>> tarefas = new ArrayList<Callable<Void>>(iTrechos);
+        for(int t = 0; t < iTrechos; t++)
+        {
+            final int iInicio = t * instanciasPorTrecho;
+            final int iFim = Math.min(quantidade, iInicio + instanciasPorTrecho);
+            tarefas.add(new Callable<Void>()
+            {
+                public Void call()
+                {
+                    pontuarIntervalo(dados, iInicio, iFim, fatores, pertinencias, rotulos);
+                    return null;
+                }
+            });
+        }
+        for(Future<Void> tarefa : pool.invokeAll(tarefas))
+        {
+            tarefa.get();
+        }
+    }
+
+
+    /**
+     * Pontua as instancias [inicio, fim), com buffers alocados uma vez para
+     * o intervalo
+     */
+    protected void pontuarIntervalo(double[] dados, int inicio, int fim, double[] fatores,
+            double[] pertinencias, int[] rotulos)
+    {
+        double[] linha = new double[nAtributos];
+        double[] distancias = new double[nClusters];
+        double[] pertinenciasLinha = new double[nClusters];
+        for(int k = inicio; k < fim; k++)
+        {
+            int iDeslocamento = k * nAtributos;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                linha[j] = dados[iDeslocamento + j] * fatores[j];
+            }
+            int iMaisProximo = 0;
+            for(int i = 0; i < nClusters; i++)
+            {
+                distancias[i] = operacoes.normaQuadratica(linha, 0, matrizCentroides[i], nAtributos);
+                if(distancias[i] < distancias[iMaisProximo])
+                {
+                    iMaisProximo = i;
+                }
+            }
+            // a maior pertinencia e a do centroide mais proximo
+            if(rotulos != null)
+            {
+                rotulos[k] = iMaisProximo;
+            }
+            if(pertinencias != null)
+            {
+                nucleo.calcularPertinenciasDistancias(distancias, pertinenciasLinha, nClusters);
+                System.arraycopy(pertinenciasLinha, 0, pertinencias, k * nClusters, nClusters);
+            }
+        }
+    }
+
+
+    /**
+     * Recupera o numero de clusters
+     */
+    public int recuperarNumeroClusters()
+    {
+        return nClusters;
+    }
+
+
+    /**
+     * Recupera o numero de atributos
+     */
+    public int recuperarNumeroAtributos()
+    {
+        return nAtributos;
+    }
+
+
+    /**
+     * Recupera o m
+     */
+    public double recuperarM()
+    {
+        return m;
+    }
+
+
+    /**
+     * Recupera o maximo de cada atributo usado na normalizacao do treino
+     */
+    public double[] recuperarMaximos()
+    {
+        return maximos;
+    }
+
+
+    /**
+     * Recupera os centroides, no espaco normalizado
+     */
+    public double[][] recuperarMatrizCentroides()
+    {
+        return matrizCentroides;
+    }
+
+
+    /**
+     * Pontua uma base texto com um modelo gravado, imprimindo em cada linha o
+     * rotulo e as pertinencias de uma instancia
+     * @param args os argumentos
+     *   1o. - caminho para o arquivo do modelo
+     *   2o. - caminho para o arquivo texto ou binario (.cmb) da base
+     *   3o. - (opcional) numero de threads
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 2 || args.length > 3)
+        {
+            System.out.println("Uso: ModeloCMeans [caminho modelo] [caminho base] [threads]");
+            System.exit(1);
+        }
+        try
+        {
+            ModeloCMeans modelo = carregar(new File(args[0]));
+            int iThreads = (args.length == 3) ? Integer.parseInt(args[2]) : 1;
+            modelo.definirParalelismo(iThreads);
+            BaseDados base;
+            if(args[1].endsWith(BaseDadosBinaria.extensao))
+            {
+                base = new BaseDadosBinaria(new File(args[1]));
+            }
+            else if(iThreads > 1)
+            {
+                base = new BaseDados(new File(args[1]), iThreads);
+            }
+            else
+            {
+                LineNumberReader leitor = new LineNumberReader(new FileReader(args[1]));
+                base = new BaseDados(leitor);
+                leitor.close();
+            }
+            int n = base.recuperarNumeroInstancias();
+            int c = modelo.recuperarNumeroClusters();
+            double[] pertinencias = new double[n * c];
+            int[] rotulos = new int[n];
+            modelo.pontuar(base, pertinencias, rotulos);
+            PrintWriter saida = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(System.out)));
+            for(int k = 0; k < n; k++)
+            {
+                saida.print(rotulos[k]);
+                for(int i = 0; i < c; i++)
+                {
+                    saida.print('\t');
+                    saida.print(pertinencias[k * c + i]);
+                }
+                saida.println();
+            }
+            saida.flush();
+        }
+        catch(Exception exc)
+        {
+            System.out.println("Erro na pontuacao com o modelo " + args[0]);
+            System.out.println(exc.getLocalizedMessage());
+            System.exit(1);
+        }
+    }
+}
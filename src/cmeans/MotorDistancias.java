@@ -0,0 +1,120 @@
+/*
+ * MotorDistancias.java
+ *
+ * Created on 18 de Outubro de 2026, 22:30
+ */
+
+package cmeans;
+import java.util.*;
+
+/**
+ * Calcula as distancias quadraticas de um grupo de instancias a todos os
+ * centroides pela expansao ||x - c||^2 = ||x||^2 - 2 x.c + ||c||^2. As normas
+ * das instancias vem da BaseDados (calculadas uma vez por base) e as dos
+ * centroides sao calculadas uma vez por iteracao, em prepararCentroides, de
+ * modo que o trabalho restante e o produto da matriz de instancias pela
+ * transposta da matriz de centroides. Esse produto e feito em blocos de
+ * instancias x centroides x atributos pequenos o bastante para que o bloco
+ * de centroides fique na cache enquanto as instancias do grupo passam por
+ * ele. Os arredondamentos podem produzir distancias ligeiramente negativas,
+ * que sao trocadas por zero.
+ * @author Daniel Saraiva Leite
+ */
+class MotorDistancias
+{
+    public static final int instanciasPorGrupo = 64;  // linhas de cada chamada
+    public static final int clustersPorBloco = 16;    // centroides por bloco
+    public static final int atributosPorBloco = 256;  // 16 x 256 doubles = 32KB
+    public static final int minimoAtributos = 16; // com menos, o calculo direto e mais rapido
+    protected BaseDados base;
+    protected int nClusters;
+    protected int nAtributos;
+    protected OperacoesVetoriais operacoes;
+    protected double[] centroides;        // dim. c clusters x m atributos, linha a linha
+    protected double[] normasCentroides;  // ||c||^2 de cada centroide
+
+
+    /**
+     * Construtor
+     * @param base a base de dados
+     * @param nClusters o numero de clusters
+     * @param operacoes as operacoes, escalares ou SIMD, dos produtos internos
+     */
+    public MotorDistancias(BaseDados base, int nClusters, OperacoesVetoriais operacoes)
+    {
+        this.base = base;
+        this.nClusters = nClusters;
+        this.nAtributos = base.recuperarNumeroAtributos();
+        this.operacoes = operacoes;
+        this.centroides = new double[nClusters * nAtributos];
+        this.normasCentroides = new double[nClusters];
+    }
+
+
+    /**
+     * Copia os centroides da iteracao para o vetor contiguo e calcula suas
+     * normas. Deve ser chamado antes de cada fase que usa as distancias.
+     * @param matrizCentroides os centroides atuais
+     */
+    public void prepararCentroides(double[][] matrizCentroides)
+    {
+        for(int i = 0; i < nClusters; i++)
+        {
+            System.arraycopy(matrizCentroides[i], 0, centroides, i * nAtributos, nAtributos);
+            double dSoma = 0;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                dSoma += matrizCentroides[i][j] * matrizCentroides[i][j];
+            }
+            normasCentroides[i] = dSoma;
+        }
+        // garante que as normas das instancias existam antes da fase paralela
+        base.recuperarNormasQuadradas();
+    }
+
+
+    /**
+     * Calcula as distancias das instancias [inicio, fim) a todos os
+     * centroides
+     * @param inicio a primeira instancia
+     * @param fim a instancia seguinte a ultima; fim - inicio nao deve passar
+     * de instanciasPorGrupo
+     * @param destino vetor de dimensao (fim - inicio) x c que recebe as
+     * distancias, instancia a instancia
+     */
+    public void calcularDistancias(int inicio, int fim, double[] destino)
+    {
+        double[] dados = base.recuperarDadosContiguos();
+        double[] normasInstancias = base.recuperarNormasQuadradas();
+        int iQtInstancias = fim - inicio;
+        Arrays.fill(destino, 0, iQtInstancias * nClusters, 0);
+        // produtos internos, bloco a bloco
+        for(int j0 = 0; j0 < nAtributos; j0 += atributosPorBloco)
+        {
+            int iAtributosBloco = Math.min(atributosPorBloco, nAtributos - j0);
+            for(int i0 = 0; i0 < nClusters; i0 += clustersPorBloco)
+            {
+                int iClustersBloco = Math.min(clustersPorBloco, nClusters - i0);
+                for(int k = 0; k < iQtInstancias; k++)
+                {
+                    operacoes.produtosInternos(dados,
+                            base.recuperarDeslocamento(inicio + k) + j0,
+                            centroides, i0 * nAtributos + j0, nAtributos, iClustersBloco,
+                            iAtributosBloco, destino, k * nClusters + i0);
+                }
+            }
+        }
+        // completa a expansao
+        for(int k = 0; k < iQtInstancias; k++)
+        {
+            double dNormaInstancia = normasInstancias[inicio + k];
+            int iDeslocamento = k * nClusters;
+            for(int i = 0; i < nClusters; i++)
+            {
+                double dDistancia = dNormaInstancia - 2 * destino[iDeslocamento + i]
+                        + normasCentroides[i];
+                destino[iDeslocamento + i] = (dDistancia > 0) ? dDistancia : 0;
+            }
+        }
+    }
+}
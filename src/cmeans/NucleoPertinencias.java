@@ -0,0 +1,293 @@
+/*
+ * NucleoPertinencias.java
+ *
+ * Created on 18 de Outubro de 2026, 20:05
+ */
+
+package cmeans;
+
+/**
+ * Calculos do laco interno que dependem do m: as pertinencias de uma
+ * instancia a partir das suas distancias aos centroides e o peso u^m de cada
+ * pertinencia nas somas dos centroides. O nucleo e escolhido uma unica vez
+ * pelo valor de m, de modo que o laco interno nao chama Math.pow para cada
+ * par de clusters:
+ * <ul>
+ * <li>m = 2: o expoente 1 / (m - 1) e 1 e o peso e u * u;</li>
+ * <li>m inteiro: o peso e calculado por multiplicacoes repetidas;</li>
+ * <li>m qualquer: o expoente e calculado uma vez, cada distancia passa por
+ * um unico log e um unico exp e cada peso por um unico Math.pow. Se o
+ * expoente 1 / (m - 1) for inteiro (m = 1.5, m = 1.25, ...), as distancias
+ * tambem usam multiplicacoes repetidas.</li>
+ * </ul>
+ * A pertinencia u_i = 1 / soma_j (d_i / d_j) ^ (1 / (m - 1)) e calculada na
+ * forma equivalente u_i = w_i / soma_j w_j, com w_j = (d_min / d_j) ^ (1 / (m - 1)),
+ * que custa O(c) em vez de O(c^2) por instancia. A divisao pela menor
+ * distancia mantem os w_j em (0, 1], sem overflow para m proximo de 1.
+ * @author Daniel Saraiva Leite
+ */
+abstract class NucleoPertinencias
+{
+    public static final int maximoMInteiro = 16; // acima disso, o nucleo geral
+    protected double m;
+    protected double expoente; // 1 / (m - 1)
+    protected int expoenteInteiro; // o expoente, se for inteiro, ou 0
+
+
+    /**
+     * Construtor
+     * @param m a influencia do grau de pertinencia
+     */
+    protected NucleoPertinencias(double m)
+    {
+        this.m = m;
+        this.expoente = 1 / (m - 1);
+        if(expoente == Math.rint(expoente) && expoente >= 1 && expoente <= maximoMInteiro)
+        {
+            this.expoenteInteiro = (int) expoente;
+        }
+    }
+
+
+    /**
+     * Escolhe o nucleo para o valor de m
+     * @param m a influencia do grau de pertinencia
+     */
+    public static NucleoPertinencias selecionar(double m)
+    {
+        if(m == 2)
+        {
+            return new NucleoM2();
+        }
+        if(m == Math.rint(m) && m <= maximoMInteiro)
+        {
+            return new NucleoMInteiro(m);
+        }
+        return new NucleoGeral(m);
+    }
+
+
+    /**
+     * Recupera o m para o qual o nucleo foi escolhido
+     */
+    public double recuperarM()
+    {
+        return m;
+    }
+
+
+    /**
+     * Calcula o peso de uma pertinencia nas somas dos centroides
+     * @return pertinencia ^ m
+     */
+    public abstract double peso(double pertinencia);
+
+
+    /**
+     * Calcula as pertinencias de uma instancia a partir das suas distancias
+     * aos centroides, inclusive quando ela coincide com algum deles
+     * @param distancias as distancias quadraticas da instancia aos centroides
+     * @param pertinencias vetor que recebe as pertinencias
+     * @param quantidade o numero de centroides
+     */
+    public void calcularPertinenciasDistancias(double[] distancias, double[] pertinencias,
+            int quantidade)
+    {
+        // os dados que coincidem com algum dos centroides formam o
+        // conjunto I, marcado pelas distancias nulas
+        int iQtInstanciasI = 0;
+        for(int i = 0; i < quantidade; i++)
+        {
+            if(distancias[i] == 0)
+            {
+                iQtInstanciasI++;
+            }
+        }
+        
+        if(iQtInstanciasI == 0)
+        {
+            calcularPertinencias(distancias, pertinencias, quantidade);
+        }
+        else
+        {
+            // se ocorreu sobreposicao do dado com algum centroide, zera o
+            // grau de pertinencia nos outros clusters e o distribui de forma
+            // igualitaria entre os clusters que o dado sobrepoe
+            for(int i = 0; i < quantidade; i++)
+            {
+                pertinencias[i] = (distancias[i] == 0) ? 1.0 / iQtInstanciasI : 0;
+            }
+        }
+    }
+
+
+    /**
+     * Calcula as pertinencias de uma instancia que nao coincide com nenhum
+     * centroide, isto e, com todas as distancias maiores do que zero
+     * @param distancias as distancias quadraticas da instancia aos c centroides
+     * @param pertinencias vetor de dimensao c que recebe as pertinencias
+     * @param nClusters o numero de clusters
+     */
+    public void calcularPertinencias(double[] distancias, double[] pertinencias,
+            int nClusters)
+    {
+        double dMenorDistancia = menorDistancia(distancias, nClusters);
+        double dSoma = 0;
+        for(int j = 0; j < nClusters; j++)
+        {
+            double dRazao = dMenorDistancia / distancias[j];
+            pertinencias[j] = (expoenteInteiro > 0) ? potencia(dRazao, expoenteInteiro)
+                    : Math.exp(expoente * Math.log(dRazao));
+            dSoma += pertinencias[j];
+        }
+        normalizar(pertinencias, nClusters, dSoma);
+    }
+
+
+    /**
+     * Calcula uma potencia inteira por quadrados sucessivos
+     * @param base a base
+     * @param expoente o expoente, maior ou igual a 0
+     */
+    protected static double potencia(double base, int expoente)
+    {
+        double dResultado = 1;
+        double dBase = base;
+        for(int e = expoente; e > 0; e >>= 1)
+        {
+            if((e & 1) != 0)
+            {
+                dResultado *= dBase;
+            }
+            dBase *= dBase;
+        }
+        return dResultado;
+    }
+
+
+    /**
+     * Busca a menor das c distancias
+     */
+    protected static double menorDistancia(double[] distancias, int nClusters)
+    {
+        double dMenor = distancias[0];
+        for(int j = 1; j < nClusters; j++)
+        {
+            if(distancias[j] < dMenor)
+            {
+                dMenor = distancias[j];
+            }
+        }
+        return dMenor;
+    }
+
+
+    /**
+     * Divide os pesos w_j pela sua soma
+     */
+    protected static void normalizar(double[] pertinencias, int nClusters, double soma)
+    {
+        double dInverso = 1 / soma;
+        for(int j = 0; j < nClusters; j++)
+        {
+            pertinencias[j] *= dInverso;
+        }
+    }
+
+
+    /**
+     * Nucleo para m = 2, so com multiplicacoes e divisoes
+     */
+    static class NucleoM2 extends NucleoPertinencias
+    {
+        public NucleoM2()
+        {
+            super(2);
+        }
+
+        public double peso(double pertinencia)
+        {
+            return pertinencia * pertinencia;
+        }
+
+        public void calcularPertinencias(double[] distancias, double[] pertinencias,
+                int nClusters)
+        {
+            double dMenorDistancia = menorDistancia(distancias, nClusters);
+            double dSoma = 0;
+            for(int j = 0; j < nClusters; j++)
+            {
+                pertinencias[j] = dMenorDistancia / distancias[j];
+                dSoma += pertinencias[j];
+            }
+            normalizar(pertinencias, nClusters, dSoma);
+        }
+    }
+
+
+    /**
+     * Nucleo para m inteiro, com o peso calculado por multiplicacoes
+     * repetidas (quadrados sucessivos). Com m = 3 o expoente e 1/2 e as
+     * pertinencias usam raiz quadrada.
+     */
+    static class NucleoMInteiro extends NucleoPertinencias
+    {
+        protected int mInteiro;
+
+        public NucleoMInteiro(double m)
+        {
+            super(m);
+            this.mInteiro = (int) m;
+        }
+
+        public double peso(double pertinencia)
+        {
+            return potencia(pertinencia, mInteiro);
+        }
+
+        public void calcularPertinencias(double[] distancias, double[] pertinencias,
+                int nClusters)
+        {
+            if(mInteiro != 3)
+            {
+                super.calcularPertinencias(distancias, pertinencias, nClusters);
+                return;
+            }
+            double dMenorDistancia = menorDistancia(distancias, nClusters);
+            double dSoma = 0;
+            for(int j = 0; j < nClusters; j++)
+            {
+                pertinencias[j] = Math.sqrt(dMenorDistancia / distancias[j]);
+                dSoma += pertinencias[j];
+            }
+            normalizar(pertinencias, nClusters, dSoma);
+        }
+    }
+
+
+    /**
+     * Nucleo para m qualquer. O peso usa um unico Math.pow por pertinencia,
+     * com o mesmo resultado da implementacao original, exceto quando m e um
+     * inteiro mais 1/2 (m = 1.5, m = 2.5, ...), em que u^m = u^floor(m) * raiz(u).
+     */
+    static class NucleoGeral extends NucleoPertinencias
+    {
+        protected int parteInteira; // floor(m), se m for um inteiro mais 1/2, ou -1
+
+        public NucleoGeral(double m)
+        {
+            super(m);
+            this.parteInteira = (2 * m == Math.rint(2 * m) && m <= maximoMInteiro)
+                    ? (int) m : -1;
+        }
+
+        public double peso(double pertinencia)
+        {
+            if(parteInteira >= 0)
+            {
+                return potencia(pertinencia, parteInteira) * Math.sqrt(pertinencia);
+            }
+            return Math.pow(pertinencia, m);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * OperacoesVetoriais.java
+ *
+ * Created on 18 de Outubro de 2026, 21:10
+ */
+
+package cmeans;
+
+/**
+ * Operacoes sobre vetores de atributos usadas no laco interno: a norma
+ * quadratica entre uma instancia e um centroide, a soma ponderada de uma
+ * instancia nos numeradores dos centroides e os produtos internos de uma
+ * instancia com varios centroides, usados pelo MotorDistancias. Esta classe e a implementacao
+ * escalar; a implementacao com a Vector API (OperacoesVetoriaisSimd) so e
+ * compilada com ant -Dsimd=true e e carregada por reflexao apenas quando a
+ * classe existe e o modulo jdk.incubator.vector esta disponivel, isto e,
+ * quando a JVM e iniciada com --add-modules jdk.incubator.vector; pode ser
+ * desligada com -Dcmeans.simd=false.
+ * @author Daniel Saraiva Leite
+ */
+class OperacoesVetoriais
+{
+    public static final String moduloVetorial = "jdk.incubator.vector";
+    public static final String classeSimd = "cmeans.OperacoesVetoriaisSimd";
+    public static final OperacoesVetoriais escalar = new OperacoesVetoriais();
+    public static final OperacoesVetoriais padrao = selecionar();
+
+
+    /**
+     * Escolhe a implementacao SIMD se ela estiver disponivel e nao tiver
+     * sido desligada, ou a escalar caso contrario
+     */
+    protected static OperacoesVetoriais selecionar()
+    {
+        if(!Boolean.parseBoolean(System.getProperty("cmeans.simd", "true")))
+        {
+            return escalar;
+        }
+        OperacoesVetoriais simd = carregarSimd();
+        return (simd != null) ? simd : escalar;
+    }
+
+
+    /**
+     * Carrega a implementacao SIMD
+     * @return a implementacao, ou nulo se o modulo da Vector API nao estiver
+     * presente ou se a largura preferida do processador nao comportar ao
+     * menos dois doubles
+     */
+    public static OperacoesVetoriais carregarSimd()
+    {
+        if(!ModuleLayer.boot().findModule(moduloVetorial).isPresent())
+        {
+            return null;
+        }
+        try
+        {
+            OperacoesVetoriais simd = (OperacoesVetoriais)
+                    Class.forName(classeSimd).getDeclaredConstructor().newInstance();
+            return simd.suportado() ? simd : null;
+        }
+        catch(Throwable exc)
+        {
+            return null;
+        }
+    }
+
+
+    /**
+     * Indica se a implementacao pode ser usada nesta JVM
+     */
+    protected boolean suportado()
+    {
+        return true;
+    }
+
+
+    /**
+     * Retorna o nome da implementacao, para relatorios
+     */
+    public String recuperarNome()
+    {
+        return "escalar";
+    }
+
+
+    /**
+     * Calcula a norma quadratica || dados[deslocamento ...] - vetor || ^ 2
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param vetor vetor com a dimensao da instancia
+     * @param nAtributos o numero de atributos
+     */
+    public double normaQuadratica(double[] dados, int deslocamento, double[] vetor,
+            int nAtributos)
+    {
+        double dSoma = 0;
+        for(int j = 0; j < nAtributos; j++)
+        {
+            double dDiferenca = dados[deslocamento + j] - vetor[j];
+            dSoma += dDiferenca * dDiferenca;
+        }
+        return dSoma;
+    }
+
+
+    /**
+     * Acumula uma instancia ponderada em um vetor de somas:
+     * destino[deslocamentoDestino + j] += dados[deslocamento + j] * peso
+     * @param destino o vetor de somas
+     * @param deslocamentoDestino a posicao da primeira soma
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo da instancia
+     * @param nAtributos o numero de atributos
+     * @param peso o peso da instancia
+     */
+    public void acumular(double[] destino, int deslocamentoDestino, double[] dados,
+            int deslocamento, int nAtributos, double peso)
+    {
+        for(int j = 0; j < nAtributos; j++)
+        {
+            destino[deslocamentoDestino + j] += dados[deslocamento + j] * peso;
+        }
+    }
+
+
+    /**
+     * Acumula os produtos internos de um trecho de uma instancia com o mesmo
+     * trecho de varios centroides consecutivos:
+     * destino[deslocamentoDestino + i] += soma_j dados[deslocamento + j]
+     * * centroides[deslocamentoCentroides + i * passoCentroides + j].
+     * Os centroides sao processados de quatro em quatro, de modo que cada
+     * atributo da instancia e lido uma vez para quatro centroides.
+     * @param dados o vetor contiguo de dados da base
+     * @param deslocamento a posicao do primeiro atributo do trecho da instancia
+     * @param centroides os centroides, armazenados linha a linha
+     * @param deslocamentoCentroides a posicao do primeiro atributo do trecho
+     * no primeiro centroide
+     * @param passoCentroides a distancia entre dois centroides consecutivos
+     * @param qtCentroides o numero de centroides
+     * @param nAtributos o numero de atributos do trecho
+     * @param destino o vetor que acumula os produtos internos
+     * @param deslocamentoDestino a posicao do produto do primeiro centroide
+     */
+    public void produtosInternos(double[] dados, int deslocamento, double[] centroides,
+            int deslocamentoCentroides, int passoCentroides, int qtCentroides,
+            int nAtributos, double[] destino, int deslocamentoDestino)
+    {
+        int i = 0;
+        for(; i + 4 <= qtCentroides; i += 4)
+        {
+            int c0 = deslocamentoCentroides + i * passoCentroides;
+            int c1 = c0 + passoCentroides;
+            int c2 = c1 + passoCentroides;
+            int c3 = c2 + passoCentroides;
+            double dSoma0 = 0, dSoma1 = 0, dSoma2 = 0, dSoma3 = 0;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                double dValor = dados[deslocamento + j];
+                dSoma0 += dValor * centroides[c0 + j];
+                dSoma1 += dValor * centroides[c1 + j];
+                dSoma2 += dValor * centroides[c2 + j];
+                dSoma3 += dValor * centroides[c3 + j];
+            }
+            destino[deslocamentoDestino + i] += dSoma0;
+            destino[deslocamentoDestino + i + 1] += dSoma1;
+            destino[deslocamentoDestino + i + 2] += dSoma2;
+            destino[deslocamentoDestino + i + 3] += dSoma3;
+        }
+        for(; i < qtCentroides; i++)
+        {
+            int c0 = deslocamentoCentroides + i * passoCentroides;
+            double dSoma = 0;
+            for(int j = 0; j < nAtributos; j++)
+            {
+                dSoma += dados[deslocamento + j] * centroides[c0 + j];
+            }
+            destino[deslocamentoDestino + i] += dSoma;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * OperacoesVetoriaisSimd.java
+ *
+ * Created on 18 de Outubro de 2026, 21:25
+ */
+
+package cmeans;
+import jdk.incubator.vector.*;
+
+/**
+ * Operacoes do laco interno com a Vector API, na largura preferida do
+ * processador (4 doubles com AVX2, 8 com AVX-512). Os atributos que sobram
+ * depois do ultimo vetor completo sao tratados pelo laco escalar. A norma
+ * quadratica soma os atributos em outra ordem, de modo que pode diferir da
+ * escalar no ultimo bit. Esta classe so e carregada por reflexao, a partir
+ * de OperacoesVetoriais, quando o modulo jdk.incubator.vector esta presente.
+ * @author Daniel Saraiva Leite
+ */
+class OperacoesVetoriaisSimd extends OperacoesVetoriais
+{
+    protected static final VectorSpecies<Double> especie = DoubleVector.SPECIES_PREFERRED;
+
+
+    /**
+     * Com menos de dois doubles por vetor nao ha ganho
+     */
+    protected boolean suportado()
+    {
+        return especie.length() >= 2;
+    }
+
+
+    public String recuperarNome()
+    {
+        return "simd " + especie.vectorBitSize() + " bits";
+    }
+
+
+    public double normaQuadratica(double[] dados, int deslocamento, double[] vetor,
+            int nAtributos)
+    {
+        int j = 0;
+        int iLimite = especie.loopBound(nAtributos);
+        double dSoma = 0;
+        if(iLimite > 0)
+        {
+            DoubleVector soma = DoubleVector.zero(especie);
+            for(; j < iLimite; j += especie.length())
+            {
+                DoubleVector diferenca = DoubleVector.fromArray(especie, dados, deslocamento + j)
+                        .sub(DoubleVector.fromArray(especie, vetor, j));
+                soma = diferenca.fma(diferenca, soma);
+            }
+            dSoma = soma.reduceLanes(VectorOperators.ADD);
+        }
+        for(; j < nAtributos; j++)
+        {
+            double dDiferenca = dados[deslocamento + j] - vetor[j];
+            dSoma += dDiferenca * dDiferenca;
+        }
+        return dSoma;
+    }
+
+
+    public void acumular(double[] destino, int deslocamentoDestino, double[] dados,
+            int deslocamento, int nAtributos, double peso)
+    {
+        int j = 0;
+        int iLimite = especie.loopBound(nAtributos);
+        if(iLimite > 0)
+        {
+            DoubleVector pesos = DoubleVector.broadcast(especie, peso);
+            for(; j < iLimite; j += especie.length())
+            {
+                DoubleVector.fromArray(especie, dados, deslocamento + j)
+                        .fma(pesos, DoubleVector.fromArray(especie, destino, deslocamentoDestino + j))
+                        .intoArray(destino, deslocamentoDestino + j);
+            }
+        }
+        for(; j < nAtributos; j++)
+        {
+            destino[deslocamentoDestino + j] += dados[deslocamento + j] * peso;
+        }
+    }
+
+
+    public void produtosInternos(double[] dados, int deslocamento, double[] centroides,
+            int deslocamentoCentroides, int passoCentroides, int qtCentroides,
+            int nAtributos, double[] destino, int deslocamentoDestino)
+    {
+        int iLimite = especie.loopBound(nAtributos);
+        if(iLimite == 0)
+        {
+            super.produtosInternos(dados, deslocamento, centroides, deslocamentoCentroides,
+                    passoCentroides, qtCentroides, nAtributos, destino, deslocamentoDestino);
+            return;
+        }
+        int i = 0;
+        for(; i + 4 <= qtCentroides; i += 4)
+        {
+            int c0 = deslocamentoCentroides + i * passoCentroides;
+            int c1 = c0 + passoCentroides;
+            int c2 = c1 + passoCentroides;
+            int c3 = c2 + passoCentroides;
+            DoubleVector soma0 = DoubleVector.zero(especie);
+            DoubleVector soma1 = soma0, soma2 = soma0, soma3 = soma0;
+            int j = 0;
+            for(; j < iLimite; j += especie.length())
+            {
+                DoubleVector valores = DoubleVector.fromArray(especie, dados, deslocamento + j);
+                soma0 = valores.fma(DoubleVector.fromArray(especie, centroides, c0 + j), soma0);
+                soma1 = valores.fma(DoubleVector.fromArray(especie, centroides, c1 + j), soma1);
+                soma2 = valores.fma(DoubleVector.fromArray(especie, centroides, c2 + j), soma2);
+                soma3 = valores.fma(DoubleVector.fromArray(especie, centroides, c3 + j), soma3);
+            }
+            double dSoma0 = soma0.reduceLanes(VectorOperators.ADD);
+            double dSoma1 = soma1.reduceLanes(VectorOperators.ADD);
+            double dSoma2 = soma2.reduceLanes(VectorOperators.ADD);
+            double dSoma3 = soma3.reduceLanes(VectorOperators.ADD);
+            for(; j < nAtributos; j++)
+            {
+                double dValor = dados[deslocamento + j];
+                dSoma0 += dValor * centroides[c0 + j];
+                dSoma1 += dValor * centroides[c1 + j];
+                dSoma2 += dValor * centroides[c2 + j];
+                dSoma3 += dValor * centroides[c3 + j];
+            }
+            destino[deslocamentoDestino + i] += dSoma0;
+            destino[deslocamentoDestino + i + 1] += dSoma1;
+            destino[deslocamentoDestino + i + 2] += dSoma2;
+            destino[deslocamentoDestino + i + 3] += dSoma3;
+        }
+        if(i < qtCentroides)
+        {
+            super.produtosInternos(dados, deslocamento, centroides,
+                    deslocamentoCentroides + i * passoCentroides, passoCentroides,
+                    qtCentroides - i, nAtributos, destino, deslocamentoDestino + i);
+        }
+    }
+}
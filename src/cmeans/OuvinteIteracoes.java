@@ -0,0 +1,23 @@
+/*
+ * OuvinteIteracoes.java
+ *
+ * Created on 19 de Outubro de 2026, 12:40
+ */
+
+package cmeans;
+
+/**
+ * Recebe as metricas de cada iteracao do C-Means, por exemplo para
+ * registrar a convergencia ou alertar quando ela fica lenta. Sem ouvinte (o
+ * padrao), nenhuma medicao e feita.
+ * @author Daniel Saraiva Leite
+ */
+public interface OuvinteIteracoes
+{
+    /**
+     * Recebe as metricas de uma iteracao concluida. O objeto e reaproveitado
+     * na proxima iteracao; para guarda-lo, copie os valores.
+     * @param metricas as metricas da iteracao
+     */
+    public void iteracaoConcluida(MetricasIteracao metricas);
+}
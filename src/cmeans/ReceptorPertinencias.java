@@ -0,0 +1,23 @@
+/*
+ * ReceptorPertinencias.java
+ *
+ * Created on 18 de Outubro de 2026, 17:30
+ */
+
+package cmeans;
+
+/**
+ * Recebe as linhas da matriz de particoes, uma instancia por vez, sem que a
+ * matriz inteira precise ser mantida em memoria
+ * @author Daniel Saraiva Leite
+ */
+public interface ReceptorPertinencias
+{
+    /**
+     * Recebe as pertinencias de uma instancia. O vetor e reaproveitado na
+     * proxima chamada; para guarda-lo, faca uma copia.
+     * @param indiceInstancia o indice da instancia na base
+     * @param pertinencias as pertinencias da instancia aos c clusters
+     */
+    public void receber(int indiceInstancia, double[] pertinencias) throws Exception;
+}
@@ -0,0 +1,231 @@
+/*
+ * ReducaoDuplicatas.java
+ *
+ * Created on 19 de Outubro de 2026, 18:30
+ */
+
+package cmeans;
+import java.util.*;
+
+/**
+ * Reduz uma base juntando instancias repetidas em representantes com peso.
+ * Cada instancia recebe uma chave (os bits dos seus valores normalizados
+ * ou, com quantizacao, a celula de lado passo que a contem) e as chaves sao
+ * agrupadas em uma tabela hash de enderecamento aberto, em uma passada.
+ * Sem quantizacao, so instancias identicas sao juntadas, o representante e
+ * a propria instancia e o peso e a soma dos pesos das copias; como o C-Means
+ * com pesos trata uma instancia de peso w como w copias, o resultado e o
+ * mesmo da base original (a menos da ordem das somas). Com quantizacao, o
+ * representante e a media ponderada das instancias da celula, o que
+ * aproxima o resultado tanto mais quanto menor o passo.
+ * @author Daniel Saraiva Leite
+ */
+public class ReducaoDuplicatas
+{
+    protected static final int tamanhoMaximoTabela = 1 << 30;
+    protected BaseDados base;
+    protected double passo; // lado da celula de quantizacao; 0: so instancias identicas
+    protected int[] representantes; // representante de cada instancia da base
+    protected BaseDados reduzida;
+
+
+    /**
+     * Construtor que junta apenas instancias identicas
+     * @param base a Base de Dados
+     */
+    public ReducaoDuplicatas(BaseDados base)
+    {
+        this(base, 0);
+    }
+
+
+    /**
+     * Construtor que junta as instancias de cada celula de uma grade
+     * @param base a Base de Dados
+     * @param passo o lado das celulas, na escala dos dados normalizados
+     * (entre 0 e 1 para valores positivos); 0 junta apenas instancias
+     * identicas
+     */
+    public ReducaoDuplicatas(BaseDados base, double passo)
+    {
+        if(!(passo >= 0) || Double.isInfinite(passo))
+        {
+            throw new IllegalArgumentException("Passo de quantizacao invalido: " + passo);
+        }
+        this.base = base;
+        this.passo = passo;
+    }
+
+
+    /**
+     * Executa a reducao
+     * @return a base reduzida, com os pesos dos representantes e os mesmos
+     * maximos de normalizacao da base original
+     */
+    public BaseDados aplicar()
+    {
+        int n = base.recuperarNumeroInstancias();
+        int nAtributos = base.recuperarNumeroAtributos();
+        double[] dados = base.recuperarDadosContiguos();
+        // tabela com ao menos o dobro de posicoes que instancias, calculada em
+        // long e limitada a 2^30 (com mais de 2^29 instancias, a carga passa de 1/2)
+        int iTamanhoTabela = (int) Math.min((long) Integer.highestOneBit(Math.max(1, n)) << 2,
+                tamanhoMaximoTabela);
+        int iMascara = iTamanhoTabela - 1;
+        int[] tabela = new int[iTamanhoTabela];
+        Arrays.fill(tabela, -1);
+        representantes = new int[n];
+        int iCapacidade = Math.max(1, Math.min(n, 1024));
+        long[] chaves = new long[iCapacidade * nAtributos]; // chave de cada representante
+        int[] primeiras = new int[iCapacidade];  // primeira instancia de cada representante
+        double[] pesos = new double[iCapacidade];
+        double[] somas = (passo > 0) ? new double[iCapacidade * nAtributos] : null;
+        long[] chave = new long[nAtributos];
+        int nRepresentantes = 0;
+        for(int k = 0; k < n; k++)
+        {
+            int iDeslocamento = base.recuperarDeslocamento(k);
+            calcularChave(dados, iDeslocamento, chave);
+            int h = espalhar(chave) & iMascara;
+            while(tabela[h] != -1 && !chaveIgual(chaves, tabela[h] * nAtributos, chave))
+            {
+                h = (h + 1) & iMascara;
+            }
+            int r = tabela[h];
+            if(r == -1)
+            {
+                // novo representante; uma posicao fica sempre livre para terminar a busca
+                if(nRepresentantes == iMascara)
+                {
+                    throw new IllegalStateException("Base com mais de " + iMascara
+                            + " instancias distintas para a reducao.");
+                }
+                r = nRepresentantes++;
+                if(r == primeiras.length)
+                {
+                    iCapacidade = (int) Math.min((long) iCapacidade * 2, n);
+                    chaves = Arrays.copyOf(chaves, iCapacidade * nAtributos);
+                    primeiras = Arrays.copyOf(primeiras, iCapacidade);
+                    pesos = Arrays.copyOf(pesos, iCapacidade);
+                    if(somas != null)
+                    {
+                        somas = Arrays.copyOf(somas, iCapacidade * nAtributos);
+                    }
+                }
+                System.arraycopy(chave, 0, chaves, r * nAtributos, nAtributos);
+                primeiras[r] = k;
+                tabela[h] = r;
+            }
+            representantes[k] = r;
+            double dPeso = base.recuperarPeso(k);
+            pesos[r] += dPeso;
+            if(somas != null)
+            {
+                for(int j = 0; j < nAtributos; j++)
+                {
+                    somas[r * nAtributos + j] += dPeso * dados[iDeslocamento + j];
+                }
+            }
+        }
+        // monta os representantes: a primeira copia ou a media da celula
+        double[] dadosReduzidos = new double[nRepresentantes * nAtributos];
+        for(int r = 0; r < nRepresentantes; r++)
+        {
+            if(somas == null || !(pesos[r] > 0))
+            {
+                System.arraycopy(dados, base.recuperarDeslocamento(primeiras[r]),
+                        dadosReduzidos, r * nAtributos, nAtributos);
+                continue;
+            }
+            for(int j = 0; j < nAtributos; j++)
+            {
+                dadosReduzidos[r * nAtributos + j] = somas[r * nAtributos + j] / pesos[r];
+            }
+        }
+        reduzida = new BaseDados(dadosReduzidos, nRepresentantes, nAtributos,
+                base.recuperarMaximos().clone());
+        reduzida.definirPesos(Arrays.copyOf(pesos, nRepresentantes));
+        return reduzida;
+    }
+
+
+    /**
+     * Calcula a chave de uma instancia: os bits de cada valor (com -0 e 0
+     * iguais) ou, com quantizacao, o indice da celula em cada atributo
+     */
+    protected void calcularChave(double[] dados, int deslocamento, long[] chave)
+    {
+        for(int j = 0; j < chave.length; j++)
+        {
+            double dValor = dados[deslocamento + j];
+            chave[j] = (passo > 0) ? (long) Math.floor(dValor / passo)
+                    : Double.doubleToLongBits(dValor + 0.0);
+        }
+    }
+
+
+    /**
+     * Espalha os bits de uma chave para a posicao inicial na tabela
+     */
+    protected static int espalhar(long[] chave)
+    {
+        long lHash = 0;
+        for(int j = 0; j < chave.length; j++)
+        {
+            lHash = (lHash + chave[j]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (lHash ^ (lHash >>> 32));
+    }
+
+
+    /**
+     * Compara uma chave com a de um representante
+     */
+    protected static boolean chaveIgual(long[] chaves, int deslocamento, long[] chave)
+    {
+        for(int j = 0; j < chave.length; j++)
+        {
+            if(chaves[deslocamento + j] != chave[j])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Retorna a base reduzida da ultima chamada a aplicar
+     */
+    public BaseDados recuperarBaseReduzida()
+    {
+        return reduzida;
+    }
+
+
+    /**
+     * Retorna, para cada instancia da base original, o indice do seu
+     * representante na base reduzida
+     */
+    public int[] recuperarRepresentantes()
+    {
+        return representantes;
+    }
+
+
+    /**
+     * Expande uma matriz de particoes da base reduzida para a base original:
+     * cada instancia recebe uma copia da linha do seu representante
+     * @param matrizReduzida a matriz n reduzido x c
+     * @return a matriz n original x c
+     */
+    public double[][] expandirParticoes(double[][] matrizReduzida)
+    {
+        double[][] matriz = new double[representantes.length][];
+        for(int k = 0; k < representantes.length; k++)
+        {
+            matriz[k] = matrizReduzida[representantes[k]].clone();
+        }
+        return matriz;
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * TrabalhadorCMeans.java
+ *
+ * Created on 19 de Outubro de 2026, 21:10
+ */
+
+package cmeans;
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Processo trabalhador da execucao distribuida do C-Means
+ * (CoordenadorCMeans). Mantem uma parte da base e, a cada comando do
+ * coordenador, calcula as pertinencias das suas instancias aos centroides
+ * recebidos e devolve os numeradores e denominadores dos proximos
+ * centroides. A passada pela parte e a mesma de aplicarAlgoritmoSemParticao
+ * e pode usar varias threads (definirParalelismo); a matriz de particoes
+ * nunca e guardada. Ao concluir, o trabalhador devolve o objetivo da sua
+ * parte e pode entregar as pertinencias finais a um receptor.
+ * @author Daniel Saraiva Leite
+ */
+public class TrabalhadorCMeans
+{
+    public static final int tentativasConexao = 50;   // o coordenador pode ainda nao ter iniciado
+    public static final long intervaloTentativas = 200; // em milissegundos
+    protected BaseDados fragmento;
+    protected int indice;
+    protected int paralelismo = 1;
+    protected ReceptorPertinencias receptor;
+    protected AgrupamentoCMeans agrupamento;
+
+
+    /**
+     * Construtor
+     * @param fragmento a parte da base mantida por este trabalhador; ela e
+     * renormalizada pelos maximos da base inteira ao se conectar
+     * @param indice o indice do trabalhador, de 0 ao numero de trabalhadores
+     * menos 1; define a ordem em que as somas sao juntadas
+     */
+    public TrabalhadorCMeans(BaseDados fragmento, int indice)
+    {
+        this.fragmento = fragmento;
+        this.indice = indice;
+    }
+
+
+    /**
+     * Define o numero de threads usadas em cada passada pela parte
+     */
+    public void definirParalelismo(int paralelismo)
+    {
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+
+    /**
+     * Define o receptor das pertinencias finais das instancias da parte
+     * @param receptor o receptor, ou nulo para nao calcula-las
+     */
+    public void definirReceptor(ReceptorPertinencias receptor)
+    {
+        this.receptor = receptor;
+    }
+
+
+    /**
+     * Conecta-se ao coordenador e atende aos seus comandos ate a conclusao
+     * @param host o endereco do coordenador
+     * @param porta a porta do coordenador
+     */
+    public void executar(String host, int porta) throws Exception
+    {
+        Socket soquete = conectar(host, porta);
+        try
+        {
+            soquete.setTcpNoDelay(true);
+            DataInputStream entrada = new DataInputStream(
+                    new BufferedInputStream(soquete.getInputStream()));
+            DataOutputStream saida = new DataOutputStream(
+                    new BufferedOutputStream(soquete.getOutputStream()));
+            int nAtributos = fragmento.recuperarNumeroAtributos();
+            // apresentacao
+            saida.writeInt(CoordenadorCMeans.assinatura);
+            saida.writeInt(CoordenadorCMeans.versao);
+            saida.writeInt(indice);
+            saida.writeInt(fragmento.recuperarNumeroInstancias());
+            saida.writeInt(nAtributos);
+            for(int j = 0; j < nAtributos; j++)
+            {
+                saida.writeDouble(fragmento.recuperarMaximos()[j]);
+            }
+            saida.flush();
+            // configuracao
+            int nClusters = entrada.readInt();
+            double m = entrada.readDouble();
+            long lSemente = entrada.readLong();
+            double[] maximos = new double[nAtributos];
+            for(int j = 0; j < nAtributos; j++)
+            {
+                maximos[j] = entrada.readDouble();
+            }
+            fragmento.definirMaximos(maximos);
+            agrupamento = new AgrupamentoCMeans(fragmento, nClusters,
+                    AgrupamentoCMeans.epsilonPadrao, m);
+            agrupamento.definirInicializacao(AgrupamentoCMeans.INICIALIZACAO_PARTICAO, 0,
+                    lSemente);
+            agrupamento.definirParalelismo(paralelismo);
+            try
+            {
+                atenderComandos(entrada, saida, nClusters, nAtributos);
+            }
+            finally
+            {
+                agrupamento.definirParalelismo(1);
+            }
+        }
+        finally
+        {
+            soquete.close();
+        }
+    }
+
+
+    /**
+     * Tenta conectar-se ao coordenador algumas vezes, para que os processos
+     * possam ser iniciados em qualquer ordem
+     */
+    protected Socket conectar(String host, int porta) throws Exception
+    {
+        for(int t = 1; ; t++)
+        {
+            try
+            {
+                return new Socket(host, porta);
+            }
+            catch(ConnectException exc)
+            {
+                if(t == tentativasConexao)
+                {
+                    throw exc;
+                }
+                Thread.sleep(intervaloTentativas);
+            }
+        }
+    }
+
+
+    /**
+     * Atende aos comandos do coordenador ate receber CONCLUIR
+     */
+    protected void atenderComandos(DataInputStream entrada, DataOutputStream saida,
+            int nClusters, int nAtributos) throws Exception
+    {
+        double[][] centroides = new double[nClusters][nAtributos];
+        double[] somaNumeradores = new double[nClusters * nAtributos];
+        double[] somaDenominadores = new double[nClusters];
+        while(true)
+        {
+            int iComando = entrada.readInt();
+            switch(iComando)
+            {
+                case CoordenadorCMeans.PARTICAO_ALEATORIA:
+                    Arrays.fill(somaNumeradores, 0);
+                    Arrays.fill(somaDenominadores, 0);
+                    agrupamento.acumularSomasParticaoAleatoria(somaNumeradores,
+                            somaDenominadores);
+                    enviarSomas(saida, somaNumeradores, somaDenominadores);
+                    break;
+                case CoordenadorCMeans.ITERAR:
+                    lerCentroides(entrada, centroides);
+                    agrupamento.acumularSomas(centroides, somaNumeradores, somaDenominadores);
+                    enviarSomas(saida, somaNumeradores, somaDenominadores);
+                    break;
+                case CoordenadorCMeans.CONCLUIR:
+                    lerCentroides(entrada, centroides);
+                    agrupamento.matrizCentroides = centroides;
+                    agrupamento.matrizParticao = null;
+                    agrupamento.particaoEsparsa = null;
+                    saida.writeDouble(agrupamento.calcularObjetivo());
+                    saida.flush();
+                    if(receptor != null)
+                    {
+                        agrupamento.emitirParticoes(receptor);
+                    }
+                    return;
+                default:
+                    throw new IOException("Comando desconhecido do coordenador: " + iComando);
+            }
+        }
+    }
+
+
+    /**
+     * Le a matriz c x m atributos de centroides enviada pelo coordenador
+     */
+    protected static void lerCentroides(DataInputStream entrada, double[][] centroides)
+    throws IOException
+    {
+        for(int i = 0; i < centroides.length; i++)
+        {
+            for(int j = 0; j < centroides[i].length; j++)
+            {
+                centroides[i][j] = entrada.readDouble();
+            }
+        }
+    }
+
+
+    /**
+     * Envia os denominadores e os numeradores ao coordenador
+     */
+    protected static void enviarSomas(DataOutputStream saida, double[] somaNumeradores,
+            double[] somaDenominadores) throws IOException
+    {
+        for(int i = 0; i < somaDenominadores.length; i++)
+        {
+            saida.writeDouble(somaDenominadores[i]);
+        }
+        for(int j = 0; j < somaNumeradores.length; j++)
+        {
+            saida.writeDouble(somaNumeradores[j]);
+        }
+        saida.flush();
+    }
+
+
+    /**
+     * Retorna o agrupamento da parte, com os centroides finais depois da
+     * conclusao
+     */
+    public AgrupamentoCMeans recuperarAgrupamento()
+    {
+        return agrupamento;
+    }
+
+
+    /**
+     * Funcao de entrada do trabalhador
+     * @param args os argumentos
+     *   1o. - endereco do coordenador
+     *   2o. - porta do coordenador
+     *   3o. - indice do trabalhador
+     *   4o. - caminho para o arquivo texto ou binario (.cmb) da parte
+     *   5o. - numero de threads (opcional)
+     *   6o. - arquivo das pertinencias finais (opcional)
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 4 || args.length > 6)
+        {
+            System.out.println("Uso: TrabalhadorCMeans [host] [porta] [indice] [caminho parte]"
+                    + " [threads] [arquivo pertinencias]");
+            System.exit(1);
+        }
+        try
+        {
+            int iThreads = (args.length >= 5) ? Integer.parseInt(args[4]) : 1;
+            BaseDados fragmento;
+            if(args[3].endsWith(BaseDadosBinaria.extensao))
+            {
+                fragmento = new BaseDadosBinaria(new File(args[3]));
+            }
+            else if(iThreads > 1)
+            {
+                fragmento = new BaseDados(new File(args[3]), iThreads);
+            }
+            else
+            {
+                LineNumberReader leitor = new LineNumberReader(new FileReader(args[3]));
+                fragmento = new BaseDados(leitor);
+                leitor.close();
+            }
+            TrabalhadorCMeans trabalhador = new TrabalhadorCMeans(fragmento,
+                    Integer.parseInt(args[2]));
+            trabalhador.definirParalelismo(iThreads);
+            PrintWriter saida = null;
+            if(args.length == 6)
+            {
+                final PrintWriter saidaPertinencias = new PrintWriter(
+                        new BufferedWriter(new FileWriter(args[5])));
+                saida = saidaPertinencias;
+                trabalhador.definirReceptor(new ReceptorPertinencias()
+                {
+                    public void receber(int indiceInstancia, double[] pertinencias)
+                    {
+                        for(int i = 0; i < pertinencias.length; i++)
+                        {
+                            saidaPertinencias.print(pertinencias[i]);
+                            saidaPertinencias.print('\t');
+                        }
+                        saidaPertinencias.println();
+                    }
+                });
+            }
+            try
+            {
+                trabalhador.executar(args[0], Integer.parseInt(args[1]));
+            }
+            finally
+            {
+                if(saida != null)
+                {
+                    saida.close();
+                }
+            }
+        }
+        catch(Exception exc)
+        {
+            System.out.println("Erro no trabalhador " + args[2] + " do metodo C-Means");
+            System.out.println(exc.getLocalizedMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * VarreduraClusters.java
+ *
+ * Created on 19 de Outubro de 2026, 11:20
+ */
+
+package cmeans;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Executa o C-Means para cada numero de clusters de um intervalo e ordena os
+ * resultados pelos indices de validade (IndicesValidade). O intervalo e
+ * dividido em trechos consecutivos, um por thread, processados ao mesmo
+ * tempo. Dentro de um trecho, os numeros de clusters sao executados em
+ * ordem crescente: o primeiro parte da inicializacao escolhida e cada um
+ * dos seguintes parte dos centroides finais do anterior, mais um centroide
+ * sorteado pelo k-means++, o que costuma exigir poucas iteracoes. Como a
+ * divisao em trechos depende do numero de threads, os resultados so sao
+ * reproduziveis para a mesma semente e o mesmo numero de threads. Apenas o
+ * melhor agrupamento e guardado. Os limites de iteracoes e de tempo e a
+ * aceleracao, quando definidos, valem para cada numero de clusters.
+ * @author Daniel Saraiva Leite
+ */
+public class VarreduraClusters
+{
+    protected BaseDados base;
+    protected int minimoClusters;
+    protected int maximoClusters;
+    protected double epsilon;
+    protected double m;
+    protected int paralelismo = 1; // trechos executados ao mesmo tempo
+    protected long semente;
+    protected int inicializacao = AgrupamentoCMeans.INICIALIZACAO_KMEANSPP;
+    protected int tamanhoAmostraInicializacao; // amostra do k-means++, 0 = base inteira
+    protected int maximoIteracoes;     // de cada numero de clusters, 0 = sem limite
+    protected long prazoMilissegundos; // de cada numero de clusters, 0 = sem limite
+    protected int memoriaAceleracao;   // 0 = sem aceleracao
+    protected IndicesValidade[] indices; // indice de cada numero de clusters
+    protected AgrupamentoCMeans melhor;
+
+
+    /** Construtor
+     * @param base a Base de Dados
+     * @param minimoClusters o menor numero de clusters, ao menos 2
+     * @param maximoClusters o maior numero de clusters
+     */
+    public VarreduraClusters(BaseDados base, int minimoClusters, int maximoClusters)
+    {
+        this(base, minimoClusters, maximoClusters, AgrupamentoCMeans.epsilonPadrao,
+                AgrupamentoCMeans.mPadrao);
+    }
+
+
+    /**
+     * Construtor que especifica qual o epsilon e m a serem utilizados
+     * @param base a Base de Dados
+     * @param minimoClusters o menor numero de clusters, ao menos 2
+     * @param maximoClusters o maior numero de clusters
+     * @param epsilon o criterio de parada de cada execucao
+     * @param m o expoente das pertinencias
+     */
+    public VarreduraClusters(BaseDados base, int minimoClusters, int maximoClusters,
+            double epsilon, double m)
+    {
+        this.base = base;
+        this.minimoClusters = Math.max(2, minimoClusters);
+        this.maximoClusters = Math.max(this.minimoClusters, maximoClusters);
+        this.epsilon = epsilon;
+        this.m = m;
+        this.semente = System.nanoTime();
+    }
+
+
+    /**
+     * Define o numero de trechos executados ao mesmo tempo
+     * @param paralelismo o numero de threads. Se menor ou igual a 1, todo o
+     * intervalo forma um unico trecho.
+     */
+    public void definirParalelismo(int paralelismo)
+    {
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+
+    /**
+     * Define a semente dos sorteios; o numero de clusters c usa semente + c
+     */
+    public void definirSemente(long semente)
+    {
+        this.semente = semente;
+    }
+
+
+    /**
+     * Define a inicializacao do primeiro numero de clusters de cada trecho,
+     * como em AgrupamentoCMeans.definirInicializacao (o padrao e o k-means++)
+     * @param estrategia uma das constantes AgrupamentoCMeans.INICIALIZACAO_*
+     * @param tamanhoAmostra a amostra do k-means++, tambem usada nos centroides
+     * acrescentados; 0 usa a base inteira
+     */
+    public void definirInicializacao(int estrategia, int tamanhoAmostra)
+    {
+        this.inicializacao = estrategia;
+        this.tamanhoAmostraInicializacao = tamanhoAmostra;
+    }
+
+
+    /**
+     * Limita a execucao de cada numero de clusters, como em
+     * AgrupamentoCMeans.definirLimites
+     * @param maximoIteracoes o numero maximo de iteracoes; 0 para nao limitar
+     * @param prazoMilissegundos o tempo maximo de cada numero de clusters; 0
+     * para nao limitar
+     */
+    public void definirLimites(int maximoIteracoes, long prazoMilissegundos)
+    {
+        this.maximoIteracoes = Math.max(0, maximoIteracoes);
+        this.prazoMilissegundos = Math.max(0, prazoMilissegundos);
+    }
+
+
+    /**
+     * Liga a aceleracao de Anderson em cada numero de clusters, como em
+     * AgrupamentoCMeans.definirAceleracao
+     * @param memoria o numero de iteracoes anteriores combinadas; 0 desliga
+     */
+    public void definirAceleracao(int memoria)
+    {
+        this.memoriaAceleracao = Math.max(0, memoria);
+    }
+
+
+    /**
+     * Executa a varredura
+     * @return os indices de cada numero de clusters, do melhor para o pior
+     */
+    public List<IndicesValidade> aplicar() throws Exception
+    {
+        int iQuantidade = maximoClusters - minimoClusters + 1;
+        indices = new IndicesValidade[iQuantidade];
+        melhor = null;
+        int iTrechos = Math.min(paralelismo, iQuantidade);
+        ExecutorService executor = Executors.newFixedThreadPool(iTrechos);
+        try
+        {
+            List<Future<?>> tarefas = new ArrayList<Future<?>>();
+            for(int t = 0; t < iTrechos; t++)
+            {
+                final int iInicio = minimoClusters + (int) ((long) iQuantidade * t / iTrechos);
+                final int iFim = minimoClusters + (int) ((long) iQuantidade * (t + 1) / iTrechos);
+                tarefas.add(executor.submit(new Callable<Void>()
+                {
+                    public Void call()
+                    {
+                        executarTrecho(iInicio, iFim);
+                        return null;
+                    }
+                }));
+            }
+            for(Future<?> tarefa : tarefas)
+            {
+                try
+                {
+                    tarefa.get();
+                }
+                catch(ExecutionException exc)
+                {
+                    throw (exc.getCause() instanceof Exception)
+                            ? (Exception) exc.getCause() : exc;
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return recuperarClassificacao();
+    }
+
+
+    /**
+     * Executa os numeros de clusters [inicio, fim) em ordem, cada um a partir
+     * do anterior
+     * @param inicio o primeiro numero de clusters do trecho
+     * @param fim o numero seguinte ao ultimo
+     */
+    protected void executarTrecho(int inicio, int fim)
+    {
+        double[][] centroidesAnteriores = null;
+        for(int c = inicio; c < fim; c++)
+        {
+            AgrupamentoCMeans agrupamento = new AgrupamentoCMeans(base, c, epsilon, m);
+            agrupamento.definirInicializacao(inicializacao, tamanhoAmostraInicializacao,
+                    semente + c);
+            agrupamento.definirLimites(maximoIteracoes, prazoMilissegundos);
+            agrupamento.definirAceleracao(memoriaAceleracao);
+            if(centroidesAnteriores == null)
+            {
+                agrupamento.aplicarAlgoritmo();
+            }
+            else
+            {
+                double[][] centroides = new double[c][];
+                System.arraycopy(centroidesAnteriores, 0, centroides, 0, c - 1);
+                agrupamento.completarCentroidesKMeansMaisMais(centroides, c - 1,
+                        new Random(semente + c), tamanhoAmostraInicializacao);
+                agrupamento.aplicarAlgoritmoCentroides(centroides);
+            }
+            centroidesAnteriores = agrupamento.recuperarMatrizCentroides();
+            registrar(c, agrupamento, agrupamento.calcularIndicesValidade());
+        }
+    }
+
+
+    /**
+     * Registra os indices de um numero de clusters e guarda o agrupamento se
+     * ele for o melhor ate agora
+     */
+    protected synchronized void registrar(int c, AgrupamentoCMeans agrupamento,
+            IndicesValidade indice)
+    {
+        indices[c - minimoClusters] = indice;
+        if(melhor == null
+                || indice.compareTo(indices[melhor.nClusters - minimoClusters]) < 0)
+        {
+            melhor = agrupamento;
+        }
+    }
+
+
+    /**
+     * Retorna os indices de cada numero de clusters, do melhor para o pior
+     * segundo o Xie-Beni
+     */
+    public List<IndicesValidade> recuperarClassificacao()
+    {
+        List<IndicesValidade> classificacao = new ArrayList<IndicesValidade>(
+                Arrays.asList(indices));
+        Collections.sort(classificacao);
+        return classificacao;
+    }
+
+
+    /**
+     * Retorna os indices de cada numero de clusters, em ordem crescente de c
+     */
+    public IndicesValidade[] recuperarIndices()
+    {
+        return indices;
+    }
+
+
+    /**
+     * Retorna o agrupamento com o melhor numero de clusters
+     */
+    public AgrupamentoCMeans recuperarMelhor()
+    {
+        return melhor;
+    }
+
+
+    /**
+     * Retorna uma linha por numero de clusters, do melhor para o pior
+     */
+    public String recuperarResumo()
+    {
+        StringBuilder resumo = new StringBuilder();
+        int iPosicao = 1;
+        for(IndicesValidade indice : recuperarClassificacao())
+        {
+            resumo.append(iPosicao++).append(". ").append(indice)
+                    .append(String.format("%n"));
+        }
+        return resumo.toString();
+    }
+}
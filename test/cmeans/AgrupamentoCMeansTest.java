@@ -0,0 +1,65 @@
+/*
+ * AgrupamentoCMeansTest.java
+ *
+ * Created on 20 de Outubro de 2026, 10:15
+ */
+
+package cmeans;
+import java.io.*;
+import java.lang.management.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Testes do laco de iteracoes do AgrupamentoCMeans
+ * @author Daniel Saraiva Leite
+ */
+public class AgrupamentoCMeansTest
+{
+    public static final int execucoesAquecimento = 20;
+
+
+    /**
+     * As iteracoes seriais nao alocam memoria: as matrizes sao alocadas uma
+     * unica vez por execucao, entao a diferenca entre execucoes de 1100 e de
+     * 100 iteracoes forcadas (epsilon negativo) sobre a Iris, depois do
+     * aquecimento, deve ser menor que um byte por iteracao
+     */
+    @Test
+    public void testIteracoesNaoAlocam() throws Exception
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean beanSun = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(beanSun.isThreadAllocatedMemorySupported()
+                && beanSun.isThreadAllocatedMemoryEnabled());
+        LineNumberReader leitor = new LineNumberReader(new FileReader("datasets/Iris.data"));
+        BaseDados base = new BaseDados(leitor);
+        leitor.close();
+        AgrupamentoCMeans agrupamento = new AgrupamentoCMeans(base, 3, -1, 2);
+        agrupamento.definirInicializacao(AgrupamentoCMeans.INICIALIZACAO_PARTICAO, 0, 1);
+        for(int i = 0; i < execucoesAquecimento; i++)
+        {
+            bytesExecucao(beanSun, agrupamento, 1100);
+        }
+        long lCurta = bytesExecucao(beanSun, agrupamento, 100);
+        long lLonga = bytesExecucao(beanSun, agrupamento, 1100);
+        assertEquals(1100, agrupamento.recuperarNumeroIteracoes());
+        assertTrue("1000 iteracoes alocaram " + (lLonga - lCurta) + " bytes",
+                lLonga - lCurta < 1000);
+    }
+
+
+    /**
+     * Retorna os bytes alocados pela thread atual em uma execucao com o
+     * numero de iteracoes dado
+     */
+    protected static long bytesExecucao(com.sun.management.ThreadMXBean beanSun,
+            AgrupamentoCMeans agrupamento, int iteracoes)
+    {
+        agrupamento.definirLimites(iteracoes, 0);
+        long lInicio = beanSun.getCurrentThreadAllocatedBytes();
+        agrupamento.aplicarAlgoritmo();
+        return beanSun.getCurrentThreadAllocatedBytes() - lInicio;
+    }
+}